@@ -0,0 +1,375 @@
+package com.itayc.reversi;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * A board state implementation for the standard 8x8 board: every player's pieces are held as
+ * a single long (a bitboard), so that the square at a row and a column is the bit at the index
+ * row * 8 + col.
+ *
+ * That way move generation is made by shifting the whole board in a direction (and masking the
+ * squares that wrapped around the edge of the board), flipping is looked up in precomputed line
+ * tables (see LineFlipTables), and piece counting is simply counting bits.
+ */
+public class BitBoardState extends BoardState {
+
+    // Attributes
+
+    public static final int BOARD_SIZE = 8; // the only board size supported by the class
+
+    private static final long ALL_SQUARES = ~0L; // mask of all the squares of the board
+    private static final long NOT_FIRST_COL = ~0x0101010101010101L; // mask without column 0
+    private static final long NOT_LAST_COL = ~0x8080808080808080L; // mask without column 7
+
+    // directions to go to from a square: the shift of the board for each direction and the
+    // mask to apply after the shift (so that squares won't wrap to the other side of the board)
+    private static final int[] SHIFTS = {1, -1, BOARD_SIZE, -BOARD_SIZE,
+            BOARD_SIZE + 1, BOARD_SIZE - 1, -BOARD_SIZE + 1, -BOARD_SIZE - 1};
+    private static final long[] MASKS = {NOT_FIRST_COL, NOT_LAST_COL, ALL_SQUARES, ALL_SQUARES,
+            NOT_FIRST_COL, NOT_LAST_COL, NOT_FIRST_COL, NOT_LAST_COL};
+
+    private long firstDiscs; // the pieces of the first player
+    private long secondDiscs; // the pieces of the second player
+
+
+    // Constructors
+
+    /**
+     * Constructor of the class: receives the players of the game.
+     *
+     * @param firstPlayer the first player of the game.
+     * @param secondPlayer the second player of the game.
+     */
+    public BitBoardState(Piece firstPlayer, Piece secondPlayer) {
+        super(BOARD_SIZE, firstPlayer, secondPlayer);
+    }
+
+    /**
+     * Copy constructor of the class: receives another BitBoardState and copies it's attributes.
+     *
+     * @param boardState the BitBoardState object to copy it's attributes.
+     */
+    public BitBoardState(BitBoardState boardState) {
+        super(boardState);
+
+        this.firstDiscs = boardState.firstDiscs;
+        this.secondDiscs = boardState.secondDiscs;
+    }
+
+
+    // Methods
+
+    @Override
+    public BoardState copy() {
+        return new BitBoardState(this);
+    }
+
+    @Override
+    public void copyFrom(BoardState boardState) {
+        BitBoardState other = (BitBoardState) boardState;
+
+        this.firstDiscs = other.firstDiscs;
+        this.secondDiscs = other.secondDiscs;
+        this.hash = other.hash;
+    }
+
+    @Override
+    public void updateBoard(List<Cell> squaresToUpdate, Piece currentPlayer, Piece otherPlayer) {
+        long toUpdate = 0;
+
+        for (Cell cell: squaresToUpdate) {
+            hashUpdate(Cell.toSquareIndex(cell.getRow(), cell.getCol(), BOARD_SIZE),
+                    getSquare(cell.getRow(), cell.getCol()), currentPlayer);
+
+            toUpdate |= squareBit(cell.getRow(), cell.getCol());
+        }
+
+        setDiscs(toUpdate, currentPlayer);
+    }
+
+    @Override
+    public void makeMove(int square, Piece currentPlayer, Piece otherPlayer, UndoRecord undo) {
+        long[] saved = undo.getSavedWords();
+        MoveList move = undo.getMove();
+
+        long flips = LineFlipTables.flips(square, getDiscs(currentPlayer), getDiscs(otherPlayer));
+
+        saved[0] = this.firstDiscs;
+        saved[1] = this.secondDiscs;
+
+        setDiscs(flips | 1L << square, currentPlayer);
+
+        undo.record(currentPlayer, otherPlayer);
+
+        while (flips != 0) {
+            move.addFlip(Long.numberOfTrailingZeros(flips));
+            flips &= flips - 1;
+        }
+
+        move.addMove(square);
+
+        hashMove(undo);
+    }
+
+    @Override
+    public void unmakeMove(UndoRecord undo) {
+        long[] saved = undo.getSavedWords();
+
+        this.firstDiscs = saved[0];
+        this.secondDiscs = saved[1];
+        this.hash = undo.getSavedHash();
+    }
+
+    @Override
+    public void generateMoveMask(Piece currentPlayer, Piece nextPlayer, long[] moves) {
+        moves[0] = validMoves(getDiscs(currentPlayer), getDiscs(nextPlayer));
+    }
+
+    @Override
+    public boolean generateMoveMasks(Piece currentPlayer, Piece nextPlayer,
+                                     long[] currentMoves, long[] nextMoves) {
+        long current = getDiscs(currentPlayer);
+        long rival = getDiscs(nextPlayer);
+
+        currentMoves[0] = validMoves(current, rival);
+
+        if (currentMoves[0] != 0)
+            return true;
+
+        nextMoves[0] = validMoves(rival, current); // the current player passes
+
+        return false;
+    }
+
+    @Override
+    public int countMoves(Piece player) {
+        return Long.bitCount(validMoves(getDiscs(player), getDiscs(getRival(player))));
+    }
+
+    @Override
+    public boolean hasAnyMove(Piece player) {
+        long current = getDiscs(player);
+        long rival = getDiscs(getRival(player));
+        long empty = ~(current | rival);
+
+        for (int direction = 0; direction < SHIFTS.length; direction++)
+            if (directionMoves(current, rival, empty, direction) != 0)
+                return true;
+
+        return false;
+    }
+
+    @Override
+    public boolean isValidMove(int square, Piece currentPlayer, Piece nextPlayer) {
+        long current = getDiscs(currentPlayer);
+        long rival = getDiscs(nextPlayer);
+
+        return ((current | rival) & 1L << square) == 0
+                && LineFlipTables.flips(square, current, rival) != 0;
+    }
+
+    @Override
+    public void resolveMove(int square, Piece currentPlayer, Piece nextPlayer, MoveList moves) {
+        long flips = LineFlipTables.flips(square, getDiscs(currentPlayer), getDiscs(nextPlayer));
+
+        while (flips != 0) {
+            moves.addFlip(Long.numberOfTrailingZeros(flips));
+            flips &= flips - 1;
+        }
+
+        moves.addMove(square);
+    }
+
+    /**
+     * A private method that receives a bitboard of squares and a player, and sets these squares
+     * to be the pieces of that player (removing them from the pieces of the other player).
+     *
+     * @param toUpdate a bitboard of the squares to update.
+     * @param player the player that the squares should be updated to.
+     */
+    private void setDiscs(long toUpdate, Piece player) {
+        if (player == this.firstPlayer) {
+            this.firstDiscs |= toUpdate;
+            this.secondDiscs &= ~toUpdate;
+        }
+        else {
+            this.secondDiscs |= toUpdate;
+            this.firstDiscs &= ~toUpdate;
+        }
+    }
+
+    /**
+     * A static function that receives as parameters the pieces of the current player and the
+     * pieces of his rival, and returns all the squares that the current player can place his
+     * piece on as a single bitboard.
+     *
+     * For every direction, the pieces of the current player are filled over the lines of the
+     * rival's pieces in that direction, and every empty square that is reached right after a
+     * rival's piece is a valid move. The fill is a parallel prefix (Kogge-Stone) fill: every
+     * step doubles the length of the lines that are filled, so a line of up to 7 squares takes 3
+     * steps instead of 6.
+     *
+     * @param current the pieces of the current player.
+     * @param rival the pieces of the rival of the current player.
+     * @return a bitboard of all the valid moves of the current player.
+     */
+    private static long validMoves(long current, long rival) {
+        long empty = ~(current | rival);
+        long moves = 0;
+
+        for (int direction = 0; direction < SHIFTS.length; direction++)
+            moves |= directionMoves(current, rival, empty, direction);
+
+        return moves;
+    }
+
+    /**
+     * A static function that receives as parameters the pieces of the current player, the pieces
+     * of his rival, the empty squares and a direction, and returns the valid moves of the current
+     * player that flip pieces in that direction (see validMoves).
+     *
+     * @param current the pieces of the current player.
+     * @param rival the pieces of the rival of the current player.
+     * @param empty the empty squares of the board.
+     * @param direction an index of a direction (in the directions arrays).
+     * @return a bitboard of the valid moves of the current player in the received direction.
+     */
+    private static long directionMoves(long current, long rival, long empty, int direction) {
+        int amount = SHIFTS[direction];
+
+        // the rival's pieces that can be filled over (without wrapping around the board)
+        long propagators = rival & MASKS[direction];
+        long generators = current;
+
+        generators |= propagators & shiftBy(generators, amount);
+        propagators &= shiftBy(propagators, amount);
+        generators |= propagators & shiftBy(generators, amount * 2);
+        propagators &= shiftBy(propagators, amount * 2);
+        generators |= propagators & shiftBy(generators, amount * 4);
+
+        return shift(generators & rival, direction) & empty;
+    }
+
+    /**
+     * A static function that receives a bitboard and an amount of bits, and returns the bitboard
+     * shifted by that amount (towards the higher bits if it's positive, or towards the lower bits
+     * otherwise) without masking anything.
+     *
+     * @param bits a bitboard.
+     * @param amount an amount of bits to shift the bitboard by.
+     * @return the received bitboard shifted by the received amount.
+     */
+    private static long shiftBy(long bits, int amount) {
+        return amount > 0 ? bits << amount : bits >>> -amount;
+    }
+
+    /**
+     * A static function that receives a bitboard and a direction as parameters, and returns
+     * the bitboard moved one square in that direction (squares that exceed the board are
+     * discarded).
+     *
+     * @param bits a bitboard.
+     * @param direction an index of a direction (in the directions arrays).
+     * @return the received bitboard moved one square in the received direction.
+     */
+    private static long shift(long bits, int direction) {
+        return shiftBy(bits, SHIFTS[direction]) & MASKS[direction];
+    }
+
+    /**
+     * A static function that receives a bitboard and returns a List of the Cells that are set
+     * in it.
+     *
+     * @param bits a bitboard.
+     * @return a List of the Cells that are set in the received bitboard.
+     */
+    private static List<Cell> toCells(long bits) {
+        List<Cell> cells = new ArrayList<>(Long.bitCount(bits));
+        Cell[] boardCells = Cell.getCells(BOARD_SIZE);
+
+        while (bits != 0) {
+            int square = Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+
+            cells.add(boardCells[square]);
+        }
+
+        return cells;
+    }
+
+    /**
+     * A static function that receives as parameters a row and a column and returns a bitboard
+     * in which only the square at these indexes is set.
+     *
+     * @param row a row in the board.
+     * @param col a column in the board.
+     * @return a bitboard of the square at the received indexes.
+     */
+    private static long squareBit(int row, int col) {
+        return 1L << (row * BOARD_SIZE + col);
+    }
+
+    /**
+     * A method that receives a player as a parameter and returns his pieces bitboard.
+     *
+     * @param player a player of the game.
+     * @return the pieces bitboard of the received player.
+     */
+    private long getDiscs(Piece player) {
+        return player == this.firstPlayer ? this.firstDiscs : this.secondDiscs;
+    }
+
+    @Override
+    public void copyBoard(Piece[][] board) {
+        this.firstDiscs = 0;
+        this.secondDiscs = 0;
+
+        for (int row = 0; row < BOARD_SIZE; row++)
+            for (int col = 0; col < BOARD_SIZE; col++)
+                if (board[row][col] == this.firstPlayer)
+                    this.firstDiscs |= squareBit(row, col);
+                else if (board[row][col] == this.secondPlayer)
+                    this.secondDiscs |= squareBit(row, col);
+
+        rehash();
+    }
+
+    @Override
+    public Piece getSquare(int row, int col) {
+        long bit = squareBit(row, col);
+
+        if ((this.firstDiscs & bit) != 0)
+            return this.firstPlayer;
+
+        return (this.secondDiscs & bit) != 0 ? this.secondPlayer : Piece.EMPTY;
+    }
+
+    @Override
+    public void copyDiscs(Piece player, long[] discs) {
+        discs[0] = getDiscs(player);
+    }
+
+    @Override
+    public int getPieceAmount(Piece player) {
+        return Long.bitCount(getDiscs(player));
+    }
+
+    @Override
+    public Collection<String> getEmptyToCheckClone() {
+        long occupied = this.firstDiscs | this.secondDiscs;
+        long adjacent = 0;
+
+        for (int direction = 0; direction < SHIFTS.length; direction++)
+            adjacent |= shift(occupied, direction);
+
+        Collection<String> emptyToCheck = new HashSet<>();
+
+        for (Cell cell: toCells(adjacent & ~occupied))
+            emptyToCheck.add(Cell.toSquareTag(cell.getRow(), cell.getCol()));
+
+        return emptyToCheck;
+    }
+}
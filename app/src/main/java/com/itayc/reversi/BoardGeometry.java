@@ -0,0 +1,431 @@
+package com.itayc.reversi;
+
+/**
+ * A class that holds the precomputed data that depends only on the board size, for the board
+ * states that represent squares as bits (the square at a row and a column is the bit at the index
+ * row * boardSize + col, and the bits are split over several longs - words), and the rays of
+ * squares that are scanned from every square in every direction.
+ *
+ * An instance is created once for every board size (on the first request) and is shared by all
+ * the board states of that size, so it must never be modified after it was created.
+ */
+public class BoardGeometry {
+
+    // Attributes
+
+    // the geometries of the board sizes
+    private static final BoardGeometry[] geometries =
+            new BoardGeometry[BoardModel.MAX_BOARD_SIZE + 1];
+
+    // the directions to go to from a square: the change in the row and in the column
+    private static final int[] ROW_STEPS = {0, 0, 1, -1, 1, 1, -1, -1};
+    private static final int[] COL_STEPS = {1, -1, 0, 0, 1, -1, 1, -1};
+    public static final int DIRECTIONS = ROW_STEPS.length; // amount of directions
+    private static final int[] OPPOSITES = {1, 0, 3, 2, 7, 6, 5, 4}; // the opposite directions
+
+    private final int boardSize; // the length of the side of the board matrix
+    private final int words; // amount of words of a bitboard
+    private final int[] shifts; // the shift of the board for each direction
+    private final long[][] shiftMasks; // mask to apply after shifting in each direction
+    private final long[] allSquares; // mask of all the squares of the board
+    private final int[][][] rays; // the squares from every square in every direction, in order
+    private final long[][][] lines; // the masks of the lines of the board in every direction
+    private final long[][] edges; // mask of the squares with no adjacent square in each direction
+    private final long[][] neighbours; // mask of the adjacent squares of every square
+
+
+    // Constructor
+
+    /**
+     * Constructor of the class: receives a board size and computes the relevant data.
+     *
+     * @param boardSize the length of the side of the board matrix.
+     */
+    private BoardGeometry(int boardSize) {
+        int squares = boardSize * boardSize;
+
+        this.boardSize = boardSize;
+        this.words = getWords(squares);
+        this.shifts = new int[DIRECTIONS];
+        this.shiftMasks = new long[DIRECTIONS][];
+        this.allSquares = new long[this.words];
+        this.rays = new int[squares][DIRECTIONS][];
+        this.lines = new long[DIRECTIONS][][];
+        this.edges = new long[DIRECTIONS][this.words];
+        this.neighbours = new long[squares][this.words];
+
+        long[] notFirstCol = new long[this.words];
+        long[] notLastCol = new long[this.words];
+
+        for (int square = 0; square < squares; square++) {
+            int row = Cell.getIndexRow(square, boardSize);
+            int col = Cell.getIndexCol(square, boardSize);
+
+            setBit(this.allSquares, square);
+
+            if (col != 0)
+                setBit(notFirstCol, square);
+
+            if (col != boardSize - 1)
+                setBit(notLastCol, square);
+
+            for (int direction = 0; direction < DIRECTIONS; direction++) {
+                int[] ray = createRay(row, col, direction, boardSize);
+
+                if (ray.length == 0) // no adjacent square in the direction
+                    setBit(this.edges[direction], square);
+                else
+                    setBit(this.neighbours[square], ray[0]);
+
+                this.rays[square][direction] = ray;
+            }
+        }
+
+        for (int direction = 0; direction < DIRECTIONS; direction++) {
+            this.shifts[direction] = ROW_STEPS[direction] * boardSize + COL_STEPS[direction];
+
+            // moving right wraps to the first column, moving left wraps to the last one
+            if (COL_STEPS[direction] == 1)
+                this.shiftMasks[direction] = notFirstCol;
+            else if (COL_STEPS[direction] == -1)
+                this.shiftMasks[direction] = notLastCol;
+            else
+                this.shiftMasks[direction] = this.allSquares;
+
+            this.lines[direction] = createLines(direction);
+        }
+    }
+
+
+    // Methods
+
+    /**
+     * A static function that receives a location of a square, a direction and a board size, and
+     * returns the indexes of the squares from that square (excluding) in that direction, in
+     * order, until the edge of the board.
+     *
+     * @param row the row of the square.
+     * @param col the column of the square.
+     * @param direction an index of a direction.
+     * @param boardSize the length of the side of the board matrix.
+     * @return the indexes of the squares from the received square in the received direction.
+     */
+    private static int[] createRay(int row, int col, int direction, int boardSize) {
+        int length = 0;
+        int currentRow = row + ROW_STEPS[direction];
+        int currentCol = col + COL_STEPS[direction];
+
+        while (currentRow >= 0 && currentRow < boardSize
+                && currentCol >= 0 && currentCol < boardSize) {
+            length++;
+            currentRow += ROW_STEPS[direction];
+            currentCol += COL_STEPS[direction];
+        }
+
+        int[] ray = new int[length];
+
+        for (int i = 0; i < length; i++)
+            ray[i] = Cell.toSquareIndex(row + ROW_STEPS[direction] * (i + 1),
+                    col + COL_STEPS[direction] * (i + 1), boardSize);
+
+        return ray;
+    }
+
+    /**
+     * A private method that receives a direction and returns the masks of the lines of the board
+     * in that direction: every line starts at a square with no adjacent square in the opposite
+     * direction, and goes until the edge of the board (to be called after the rays and the edges
+     * were computed).
+     *
+     * @param direction an index of a direction.
+     * @return the masks of the lines of the board in the received direction.
+     */
+    private long[][] createLines(int direction) {
+        long[] starts = this.edges[OPPOSITES[direction]];
+        long[][] result = new long[bitCount(starts)][this.words];
+        int line = 0;
+
+        for (int square = nextSetBit(starts, 0); square != -1;
+             square = nextSetBit(starts, square + 1), line++) {
+            setBit(result[line], square);
+
+            for (int rayed: this.rays[square][direction])
+                setBit(result[line], rayed);
+        }
+
+        return result;
+    }
+
+    /**
+     * A static function that receives a board size and returns the geometry of that board size.
+     * The geometry is created on the first request, and shared afterwards.
+     *
+     * @param boardSize the length of the side of the board matrix.
+     * @return the geometry of the received board size.
+     */
+    public static synchronized BoardGeometry getInstance(int boardSize) {
+        if (geometries[boardSize] == null)
+            geometries[boardSize] = new BoardGeometry(boardSize);
+
+        return geometries[boardSize];
+    }
+
+    /**
+     * A static function that receives an amount of squares and returns the amount of words
+     * needed to hold a bit for each of them.
+     *
+     * @param squares an amount of squares.
+     * @return the amount of words needed to hold a bit for each of the squares.
+     */
+    public static int getWords(int squares) {
+        return (squares + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    /**
+     * A static function that receives a bitboard and a square index, and sets the bit of that
+     * square in the bitboard.
+     *
+     * @param bits a bitboard.
+     * @param square an index of a square.
+     */
+    public static void setBit(long[] bits, int square) {
+        // the shift distance of a long is taken modulo 64, so it's the bit inside the word
+        bits[square / Long.SIZE] |= 1L << square;
+    }
+
+    /**
+     * A static function that receives a bitboard and a square index, and clears the bit of that
+     * square in the bitboard.
+     *
+     * @param bits a bitboard.
+     * @param square an index of a square.
+     */
+    public static void clearBit(long[] bits, int square) {
+        bits[square / Long.SIZE] &= ~(1L << square);
+    }
+
+    /**
+     * A static function that receives a bitboard and a square index, and returns true if the
+     * bit of that square is set in the bitboard, or false otherwise.
+     *
+     * @param bits a bitboard.
+     * @param square an index of a square.
+     * @return true if the bit of the received square is set, or false otherwise.
+     */
+    public static boolean isSet(long[] bits, int square) {
+        return (bits[square / Long.SIZE] & (1L << square)) != 0;
+    }
+
+    /**
+     * A static function that receives a bitboard and a square index, and returns the index of
+     * the first square that is set in the bitboard starting from that square (including), or -1
+     * if there isn't such a square.
+     *
+     * @param bits a bitboard.
+     * @param from an index of a square to start from.
+     * @return the index of the first set square from the received square, or -1 if there isn't.
+     */
+    public static int nextSetBit(long[] bits, int from) {
+        int word = from / Long.SIZE;
+
+        if (word >= bits.length)
+            return -1;
+
+        long current = bits[word] & (-1L << from); // without the squares before from
+
+        while (current == 0) {
+            if (++word == bits.length)
+                return -1;
+
+            current = bits[word];
+        }
+
+        return word * Long.SIZE + Long.numberOfTrailingZeros(current);
+    }
+
+    /**
+     * A static function that receives a bitboard and returns the amount of squares that are set
+     * in it.
+     *
+     * @param bits a bitboard.
+     * @return the amount of squares that are set in the received bitboard.
+     */
+    public static int bitCount(long[] bits) {
+        int count = 0;
+
+        for (long word: bits)
+            count += Long.bitCount(word);
+
+        return count;
+    }
+
+    /**
+     * A static function that receives a direction and returns the opposite direction.
+     *
+     * @param direction an index of a direction.
+     * @return the index of the opposite direction.
+     */
+    public static int getOpposite(int direction) {
+        return OPPOSITES[direction];
+    }
+
+    /**
+     * A static function that receives a direction and returns the change in the row when
+     * moving in that direction.
+     *
+     * @param direction an index of a direction.
+     * @return the change in the row when moving in the received direction.
+     */
+    public static int getRowStep(int direction) {
+        return ROW_STEPS[direction];
+    }
+
+    /**
+     * A static function that receives a direction and returns the change in the column when
+     * moving in that direction.
+     *
+     * @param direction an index of a direction.
+     * @return the change in the column when moving in the received direction.
+     */
+    public static int getColStep(int direction) {
+        return COL_STEPS[direction];
+    }
+
+    /**
+     * A getter for the board size.
+     *
+     * @return the length of the side of the board matrix.
+     */
+    public int getBoardSize() {
+        return this.boardSize;
+    }
+
+    /**
+     * A getter for the amount of words of a bitboard.
+     *
+     * @return the amount of words of a bitboard of the board size.
+     */
+    public int getWords() {
+        return this.words;
+    }
+
+    /**
+     * A method that receives a direction and returns the shift of a bitboard (in bits) that
+     * moves all of it's squares one square in that direction.
+     *
+     * @param direction an index of a direction.
+     * @return the shift of a bitboard in the received direction (negative towards lower bits).
+     */
+    public int getShift(int direction) {
+        return this.shifts[direction];
+    }
+
+    /**
+     * A method that receives a direction and returns the mask to apply on a bitboard after it was
+     * shifted in that direction, so that squares that wrapped around the edge of the board (or
+     * went outside of it) are discarded.
+     *
+     * Note that the returned array is NOT a copy, therefore it is not to be modified.
+     *
+     * @param direction an index of a direction.
+     * @return the mask to apply after shifting in the received direction.
+     */
+    public long[] getShiftMask(int direction) {
+        return this.shiftMasks[direction];
+    }
+
+    /**
+     * A getter for the mask of all the squares of the board.
+     *
+     * Note that the returned array is NOT a copy, therefore it is not to be modified.
+     *
+     * @return the mask of all the squares of the board.
+     */
+    public long[] getAllSquares() {
+        return this.allSquares;
+    }
+
+    /**
+     * A method that receives a square index and returns the mask of the squares adjacent to it.
+     *
+     * Note that the returned array is NOT a copy, therefore it is not to be modified.
+     *
+     * @param square an index of a square.
+     * @return the mask of the squares adjacent to the received square.
+     */
+    public long[] getNeighbours(int square) {
+        return this.neighbours[square];
+    }
+
+    /**
+     * A method that receives a square index and a direction, and returns the indexes of the
+     * squares from that square (excluding) in that direction, in order, until the edge of the
+     * board (so they can be iterated without checking the bounds of the board).
+     *
+     * Note that the returned array is NOT a copy, therefore it is not to be modified.
+     *
+     * @param square an index of a square.
+     * @param direction an index of a direction.
+     * @return the indexes of the squares from the received square in the received direction.
+     */
+    public int[] getRay(int square, int direction) {
+        return this.rays[square][direction];
+    }
+
+    /**
+     * A method that receives a direction and returns the masks of the lines of the board in that
+     * direction (the rows for a horizontal direction, the columns for a vertical direction and
+     * the diagonals of the board for a diagonal direction), each from the edge of the board to
+     * the other edge.
+     *
+     * Note that the returned arrays are NOT copies, therefore they are not to be modified.
+     *
+     * @param direction an index of a direction.
+     * @return the masks of the lines of the board in the received direction.
+     */
+    public long[][] getLines(int direction) {
+        return this.lines[direction];
+    }
+
+    /**
+     * A method that receives a direction and returns the mask of the squares that have no
+     * adjacent square in that direction (the edge of the board on that side).
+     *
+     * Note that the returned array is NOT a copy, therefore it is not to be modified.
+     *
+     * @param direction an index of a direction.
+     * @return the mask of the squares with no adjacent square in the received direction.
+     */
+    public long[] getEdge(int direction) {
+        return this.edges[direction];
+    }
+
+    /**
+     * A method that receives as parameters a bitboard, a direction and a bitboard to fill, and
+     * fills it with the received bitboard moved one square in that direction (squares that
+     * exceed the board are discarded). The source and the destination may be the same bitboard.
+     *
+     * @param source a bitboard to shift.
+     * @param direction an index of a direction.
+     * @param destination a bitboard to fill with the shifted bitboard.
+     */
+    public void shift(long[] source, int direction, long[] destination) {
+        int amount = this.shifts[direction];
+        long[] mask = this.shiftMasks[direction];
+        int last = this.words - 1;
+
+        if (amount > 0) // towards the higher bits: carry from the word below
+            for (int word = last; word >= 0; word--)
+                destination[word] = ((source[word] << amount)
+                        | (word > 0 ? source[word - 1] >>> (Long.SIZE - amount) : 0))
+                        & mask[word];
+        else { // towards the lower bits: carry from the word above
+            amount = -amount;
+
+            for (int word = 0; word <= last; word++)
+                destination[word] = ((source[word] >>> amount)
+                        | (word < last ? source[word + 1] << (Long.SIZE - amount) : 0))
+                        & mask[word];
+        }
+    }
+}
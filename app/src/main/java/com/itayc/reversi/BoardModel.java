@@ -1,8 +1,8 @@
 package com.itayc.reversi;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 
 /**
@@ -24,16 +24,20 @@ public class BoardModel { // game model
 
     private int boardSize; // The size of the matrix board's side
 
-    private final BoardState boardState; // an object that hold the state of the board
+    private BoardState boardState; // an object that hold the state of the board
 
-    private HashMap<String, List<Cell>> validChoices; // the valid choices for current player
+    private ValidChoices validChoices; // the valid choices for current player
+    private LegalMoveTracker legalMoves; // the valid moves of both players, kept across turns
 
     private Piece winner; // the current winner of the game
     private boolean isGameOver; // true if the game has ended or false otherwise
 
-    private final HashMap<Piece, Integer> turnsCount; // dictionary for each player's played turns
+    // the players' slots in the arrays below are the ordinals of their pieces (Piece.ordinal)
+    private static final int PLAYER_SLOTS = Piece.values().length;
 
-    private final HashMap<Piece, Double> avgTurns; // average turn reaction time of the players
+    private final int[] turnsCount; // each player's played turns
+
+    private final double[] avgTurns; // average turn reaction time of the players
     private long lastTimeStamp; // the last time stamp to compare for average calculating
 
 
@@ -47,14 +51,12 @@ public class BoardModel { // game model
      * @param secondPlayer the second player.
      */
     public BoardModel(Piece firstPlayer, Piece secondPlayer) {
-        this.boardState = new BoardState();
-
-        this.avgTurns = new HashMap<>();
+        this.avgTurns = new double[PLAYER_SLOTS];
 
-        this.avgTurns.put(firstPlayer, (double) INIT_AVG);
-        this.avgTurns.put(secondPlayer, (double) INIT_AVG);
+        this.avgTurns[firstPlayer.ordinal()] = INIT_AVG;
+        this.avgTurns[secondPlayer.ordinal()] = INIT_AVG;
 
-        this.turnsCount = new HashMap<>();
+        this.turnsCount = new int[PLAYER_SLOTS];
     }
 
 
@@ -75,25 +77,20 @@ public class BoardModel { // game model
         this.isGameOver = gameState.isGameOver();
         this.winner = gameState.getGameWinner();
 
-        this.boardState.clearPieceAmounts();
-        this.boardState.putPieceAmount(firstPlayer, gameState.getFirstPieces());
-        this.boardState.putPieceAmount(secondPlayer, gameState.getSecondPieces());
+        Arrays.fill(this.turnsCount, 0);
+        this.turnsCount[firstPlayer.ordinal()] = gameState.getFirstTurnsPlayed();
+        this.turnsCount[secondPlayer.ordinal()] = gameState.getSecondTurnsPlayer();
 
-        this.turnsCount.clear();
-        this.turnsCount.put(firstPlayer, gameState.getFirstTurnsPlayed());
-        this.turnsCount.put(secondPlayer, gameState.getSecondTurnsPlayer());
+        this.avgTurns[firstPlayer.ordinal()] = gameState.getTurnAvgFirst();
+        this.avgTurns[secondPlayer.ordinal()] = gameState.getTurnAvgSecond();
 
-        this.avgTurns.put(firstPlayer, (double) gameState.getTurnAvgFirst());
-        this.avgTurns.put(secondPlayer, (double) gameState.getTurnAvgSecond());
-
-        this.boardState.clearEmptyToCheck();
+        // the most suitable board state implementation for the board size
+        this.boardState = BoardState.newInstance(this.boardSize, firstPlayer, secondPlayer);
 
         Piece[][] boardToLoad = gameState.getBoard();
 
-        if (boardToLoad != INIT_BOARD) { // loading ready game state
+        if (boardToLoad != INIT_BOARD) // loading ready game state (piece counts are derived)
             this.boardState.copyBoard(boardToLoad);
-            this.boardState.addAllEmpties(gameState.getEmptyToCheck());
-        }
         else // need to initiate game state
         {
             initModelBoard(firstPlayer, secondPlayer, gameState.getStartSize());
@@ -101,9 +98,15 @@ public class BoardModel { // game model
             gameState.setEmptyToCheck(getEmptyToCheckClone());
         }
 
+        this.legalMoves = new LegalMoveTracker(this.boardState);
+
+        // saved games don't keep the hash, it's derived from the board
+        gameState.setZobristHash(getZobristHash(gameState.getCurrentPlayer()));
+
         if (!this.isGameOver) // to avoid unnecessary run
-            this.validChoices = this.boardState.validChoices(gameState.getCurrentPlayer(),
-                    gameState.getNextPlayer());
+            this.validChoices = new ValidChoices(this.boardState, gameState.getCurrentPlayer(),
+                    gameState.getNextPlayer(),
+                    this.legalMoves.getMoves(gameState.getCurrentPlayer()));
 
         this.lastTimeStamp = System.currentTimeMillis(); // take time stamp
     }
@@ -117,7 +120,7 @@ public class BoardModel { // game model
      * @param startSize the starting amount of pieces for each player.
      */
     private void initModelBoard(Piece firstPlayer, Piece secondPlayer, int startSize) {
-        this.boardState.initBoard(this.boardSize);
+        Piece[][] board = new Piece[this.boardSize][this.boardSize];
 
         // size of starting sub-matrix
         int startSide = (int) (Math.sqrt(startSize * 2));
@@ -130,15 +133,12 @@ public class BoardModel { // game model
             for (int j = 0; j< this.boardSize; j++)
                 if (i >= firstMiddleIndex && i < firstMiddleIndex + startSide
                         && j >= firstMiddleIndex && j < firstMiddleIndex + startSide) // middle
-                    this.boardState.setSquare((i + j) % 2 == 0 ? firstPlayer : secondPlayer, i, j);
+                    board[i][j] = (i + j) % 2 == 0 ? firstPlayer : secondPlayer;
                 else
-                    this.boardState.setSquare(INIT_WINNER, i, j);
+                    board[i][j] = INIT_WINNER;
 
-        // Initiate empty-squares-to-check Collection
-        for (int i = firstMiddleIndex - 1; i <= firstMiddleIndex + startSide; i++)
-            for (int j = firstMiddleIndex - 1; j <= firstMiddleIndex + startSide; j++)
-                if (this.boardState.isInBoard(i, j) && this.boardState.isSquareEmpty(i, j))
-                    this.boardState.addEmpty(Cell.toSquareTag(i, j));
+        // the empty squares to check and the pieces counts are derived from the board
+        this.boardState.copyBoard(board);
     }
 
     /**
@@ -172,18 +172,27 @@ public class BoardModel { // game model
         updateAverage(current); // update the average time for the current player to make decision
 
         this.boardState.updateBoard(toChangeArray, current, rival); // update the board
-        this.validChoices = this.boardState.validChoices(rival, current); // turn changed
 
-        if (this.validChoices.size() == 0) { // no available choice for the next turn
-            this.validChoices = this.boardState.validChoices(current, rival);
+        // only the squares that the changed squares may affect are examined again
+        this.legalMoves.update(toChangeArray);
 
-            if (this.validChoices.size() != 0) // other player can play
-                return false; // turn has not changed
+        if (this.legalMoves.hasAnyMove(rival)) { // turn changed
+            this.validChoices = new ValidChoices(this.boardState, rival, current,
+                    this.legalMoves.getMoves(rival));
+            return true;
+        }
 
-            // no available choices for either players
-            finishGame(current, rival);
+        if (this.legalMoves.hasAnyMove(current)) { // no available choice for the next turn
+            this.validChoices = new ValidChoices(this.boardState, current, rival,
+                    this.legalMoves.getMoves(current));
+            return false; // turn has not changed
         }
 
+        // no available choices for either players
+        this.validChoices = new ValidChoices(this.boardState, current, rival,
+                this.legalMoves.getMoves(current)); // empty
+        finishGame(current, rival);
+
         return true;
     }
 
@@ -214,9 +223,8 @@ public class BoardModel { // game model
      *
      * @param player a player of which the turns count will be incremented.
      */
-    @SuppressWarnings("ConstantConditions") // asserting the player is valid
     private void incrementTurnsCount(Piece player) {
-        this.turnsCount.put(player, this.turnsCount.get(player) + 1);
+        this.turnsCount[player.ordinal()]++;
     }
 
     /**
@@ -228,19 +236,19 @@ public class BoardModel { // game model
      *
      * @param currentPlayer the current player.
      */
-    @SuppressWarnings("ConstantConditions") // asserting the player is valid
     private void updateAverage(Piece currentPlayer) {
+        int slot = currentPlayer.ordinal(); // the slot of the player in the averages
         long currentTimeStamp = System.currentTimeMillis(); // take current time stamp
         double diff = currentTimeStamp - this.lastTimeStamp; // calculate the difference between
         // the last time stamp and the current one.
-        double lastAvg = this.avgTurns.get(currentPlayer); // get the last average recorded before
+        double lastAvg = this.avgTurns[slot]; // get the last average recorded before
         // the current turn
 
         int currentTurn = getTurnsCount(currentPlayer); // get the amount of turns player has
         // played in order to calculate and update the average precisely
 
-        // calculate the new average and update the dictionary
-        this.avgTurns.put(currentPlayer, (lastAvg * (currentTurn - 1) + diff) / currentTurn);
+        // calculate the new average and update the player's slot
+        this.avgTurns[slot] = (lastAvg * (currentTurn - 1) + diff) / currentTurn;
 
         this.lastTimeStamp = currentTimeStamp; // take time stamp for next turn's calculation
     }
@@ -324,9 +332,8 @@ public class BoardModel { // game model
      * @param player a player of which to return the turns count.
      * @return the number of turns the received player has played.
      */
-    @SuppressWarnings("ConstantConditions") // asserting the player is valid
     public int getTurnsCount(Piece player) {
-        return this.turnsCount.get(player);
+        return this.turnsCount[player.ordinal()];
     }
 
     /**
@@ -337,7 +344,7 @@ public class BoardModel { // game model
      */
     public int getTurnsCount() {
         int sum = 0;
-        for (int turnCount: this.turnsCount.values())
+        for (int turnCount: this.turnsCount)
             sum += turnCount;
 
         return sum;
@@ -370,9 +377,8 @@ public class BoardModel { // game model
      * @param player the desired player of which the average will be returned.
      * @return the average time that it takes to the first player to play his turn.
      */
-    @SuppressWarnings("ConstantConditions") // asserting the player is valid
     public long getTurnAvg(Piece player) {
-        return this.avgTurns.get(player).longValue();
+        return (long) this.avgTurns[player.ordinal()];
     }
 
     /**
@@ -380,10 +386,21 @@ public class BoardModel { // game model
      *
      * @return the valid move choices for the current turn.
      */
-    public HashMap<String, List<Cell>> getValidChoices() {
+    public ValidChoices getValidChoices() {
         return this.validChoices;
     }
 
+    /**
+     * A method that gets as a parameter the player whose turn it is, and returns the Zobrist
+     * hash of the current position (see BoardState.getZobristHash).
+     *
+     * @param playerToMove the player whose turn it is.
+     * @return the Zobrist hash of the current position.
+     */
+    public long getZobristHash(Piece playerToMove) {
+        return this.boardState.getZobristHash(playerToMove);
+    }
+
     /**
      * A clone getter for the game board (deep copy).
      *
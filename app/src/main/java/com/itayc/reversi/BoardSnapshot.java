@@ -0,0 +1,173 @@
+package com.itayc.reversi;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * A class that represents an immutable copy of the board of a game at some point (for example
+ * the board of a game state that is kept for undo and redo, see LiveGameDetails).
+ *
+ * The rows of the board are shared between snapshots: the snapshot after a move is made from
+ * the snapshot before it by copying only the rows that the move changed, and the other rows are
+ * the same arrays. Therefore keeping a snapshot of every turn costs about the rows that every
+ * turn touched, and not the whole board. Since the rows are shared, they are never modified
+ * after the snapshot was created.
+ */
+public class BoardSnapshot {
+
+    // Attributes
+
+    private final Piece[][] rows; // the rows of the board (shared, never modified)
+
+
+    // Constructor
+
+    /**
+     * Constructor of the class: receives the rows of the board (that are not to be modified
+     * anymore).
+     *
+     * @param rows the rows of the board.
+     */
+    private BoardSnapshot(Piece[][] rows) {
+        this.rows = rows;
+    }
+
+
+    // Methods
+
+    /**
+     * A static function that receives a board and returns a snapshot of it (a copy, so the
+     * received board can still be modified), or null if the received board is null.
+     *
+     * @param board a matrix of the pieces of the board, or null.
+     * @return a snapshot of the received board, or null if the received board is null.
+     */
+    public static BoardSnapshot of(Piece[][] board) {
+        if (board == null)
+            return null;
+
+        Piece[][] rows = new Piece[board.length][];
+
+        for (int row = 0; row < rows.length; row++)
+            rows[row] = copyRow(board[row]);
+
+        return new BoardSnapshot(rows);
+    }
+
+    /**
+     * A method that receives a List of Cells that were changed by a move (the placed piece and
+     * the flipped pieces) and the player who made the move, and returns the snapshot of the
+     * board after the move. Only the rows of the changed Cells are copied, and the other rows
+     * are shared with this snapshot.
+     *
+     * @param changedSquares a List of the Cells that were changed by a move.
+     * @param player the player who made the move.
+     * @return the snapshot of the board after the move.
+     */
+    public BoardSnapshot with(List<Cell> changedSquares, Piece player) {
+        Piece[][] rows = new Piece[this.rows.length][];
+
+        System.arraycopy(this.rows, 0, rows, 0, rows.length); // sharing all the rows
+
+        for (Cell cell: changedSquares) {
+            int row = cell.getRow();
+
+            if (rows[row] == this.rows[row]) // not copied yet
+                rows[row] = copyRow(this.rows[row]);
+
+            rows[row][cell.getCol()] = player;
+        }
+
+        return new BoardSnapshot(rows);
+    }
+
+    /**
+     * A getter for the board size.
+     *
+     * @return the length of the side of the board matrix.
+     */
+    public int getBoardSize() {
+        return this.rows.length;
+    }
+
+    /**
+     * A method that receives a location on the board (row and column) and returns the piece at
+     * that location.
+     *
+     * @param row location row.
+     * @param col location column.
+     * @return the piece at the received location.
+     */
+    public Piece getSquare(int row, int col) {
+        return this.rows[row][col];
+    }
+
+    /**
+     * A getter for the rows of the board, as a matrix of pieces.
+     *
+     * Note that the returned matrix is NOT a copy, and it's rows are shared with other snapshots,
+     * therefore it is not to be modified.
+     *
+     * @return the matrix of the pieces of the board.
+     */
+    public Piece[][] getRows() {
+        return this.rows;
+    }
+
+    /**
+     * A method that returns a new Collection of the empty squares that are adjacent to a piece
+     * (the empty squares to check for valid moves), as square tags (see Cell.toSquareTag).
+     *
+     * @return a new Collection of the empty squares that are adjacent to a piece.
+     */
+    public Collection<String> getEmptyToCheck() {
+        Collection<String> emptyToCheck = new HashSet<>();
+        int boardSize = getBoardSize();
+
+        for (int row = 0; row < boardSize; row++)
+            for (int col = 0; col < boardSize; col++)
+                if (this.rows[row][col] == Piece.EMPTY && isNextToPiece(row, col))
+                    emptyToCheck.add(Cell.toSquareTag(row, col));
+
+        return emptyToCheck;
+    }
+
+    /**
+     * A private method that receives a location on the board (row and column) and returns true
+     * if any of the squares adjacent to it holds a piece, or false otherwise.
+     *
+     * @param row location row.
+     * @param col location column.
+     * @return true if a square adjacent to the received location holds a piece, false otherwise.
+     */
+    private boolean isNextToPiece(int row, int col) {
+        int boardSize = getBoardSize();
+
+        for (int direction = 0; direction < BoardGeometry.DIRECTIONS; direction++) {
+            int adjacentRow = row + BoardGeometry.getRowStep(direction);
+            int adjacentCol = col + BoardGeometry.getColStep(direction);
+
+            if (adjacentRow >= 0 && adjacentRow < boardSize
+                    && adjacentCol >= 0 && adjacentCol < boardSize
+                    && this.rows[adjacentRow][adjacentCol] != Piece.EMPTY)
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * A private static function that receives a row of a board and returns a copy of it.
+     *
+     * @param row a row of a board.
+     * @return a copy of the received row.
+     */
+    private static Piece[] copyRow(Piece[] row) {
+        Piece[] copy = new Piece[row.length];
+
+        System.arraycopy(row, 0, copy, 0, row.length);
+
+        return copy;
+    }
+}
@@ -1,9 +1,6 @@
 package com.itayc.reversi;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -12,40 +9,87 @@ import java.util.List;
  * The BoardModel class was split for convenience with the Minimax Algorithm and for better
  * organized code (instead of having several static methods that get BoardState as parameter
  * and operate on it, I ultimately decided to move them here).
+ *
+ * The class itself only defines the contract of a board state; the actual representation of
+ * the board is left to the implementing classes, so that a faster representation can be used
+ * where it's possible (see newInstance).
  */
-public class BoardState {
+public abstract class BoardState {
 
     // Attributes
 
-    private Piece[][] board; // The board of the game
-    private final HashMap<Piece, Integer> pieceCount; // Piece counts for both players
-    private final Collection<String> emptyToCheck; // empty squares to check for next
-    // turn (for performance)
+    protected final int boardSize; // The size of the matrix board's side
+    protected final Piece firstPlayer; // the first player of the game
+    protected final Piece secondPlayer; // the second player of the game
+    protected final ZobristKeys zobristKeys; // the keys of the hash of the board size
+    protected long hash; // the Zobrist hash of the pieces on the board (see getZobristHash)
+    private StableDiscs stableDiscs; // the finder of the stable discs (created on the first use)
 
 
     // Constructors
 
     /**
-     * Empty constructor of the class: initiates the relevant data structures.
+     * Constructor of the class: receives the board size and the players of the game.
+     *
+     * @param boardSize the length of the side of the board matrix.
+     * @param firstPlayer the first player of the game.
+     * @param secondPlayer the second player of the game.
      */
-    public BoardState() {
-        this.pieceCount = new HashMap<>();
-        this.emptyToCheck = new HashSet<>();
+    protected BoardState(int boardSize, Piece firstPlayer, Piece secondPlayer) {
+        this.boardSize = boardSize;
+        this.firstPlayer = firstPlayer;
+        this.secondPlayer = secondPlayer;
+        this.zobristKeys = ZobristKeys.getInstance(boardSize);
     }
 
     /**
      * Copy constructor of the class: receives another BoardState and copies it's attributes.
+     *
      * @param boardState the BoardState object to copy it's attributes.
      */
-    public BoardState(BoardState boardState) {
-        copyBoard(boardState.board);
-        this.pieceCount = new HashMap<>(boardState.pieceCount);
-        this.emptyToCheck = cloneEmptyToCheck(boardState.emptyToCheck);
+    protected BoardState(BoardState boardState) {
+        this(boardState.boardSize, boardState.firstPlayer, boardState.secondPlayer);
+
+        this.hash = boardState.hash;
     }
 
 
     // Methods
 
+    /**
+     * A static function that receives as parameters a board size and the players of the game,
+     * and returns a new (empty) board state of the most suitable implementation for that
+     * board size.
+     *
+     * @param boardSize the length of the side of the board matrix.
+     * @param firstPlayer the first player of the game.
+     * @param secondPlayer the second player of the game.
+     * @return a new board state of the most suitable implementation for the received board size.
+     */
+    public static BoardState newInstance(int boardSize, Piece firstPlayer, Piece secondPlayer) {
+        if (boardSize == BitBoardState.BOARD_SIZE)
+            return new BitBoardState(firstPlayer, secondPlayer);
+
+        return new MultiWordBoardState(boardSize, firstPlayer, secondPlayer);
+    }
+
+    /**
+     * A method that returns a copy of the current board state (deep copy), of the same
+     * implementation.
+     *
+     * @return a deep copy of the current board state.
+     */
+    public abstract BoardState copy();
+
+    /**
+     * A method that gets as a parameter another board state of the same implementation, board
+     * size and players, and copies it into the current board state (deep copy) in place of it's
+     * own data, so that a board state can be reused instead of allocated (see BoardStateArena).
+     *
+     * @param boardState a board state of the same implementation, board size and players.
+     */
+    public abstract void copyFrom(BoardState boardState);
+
     /**
      * A method that gets a List of Cells that represents squares in the board, the
      * current player's piece and the rival's piece, and updates the squares of the game board
@@ -55,363 +99,311 @@ public class BoardState {
      * @param currentPlayer the piece of the player that the squares should be updated to.
      * @param otherPlayer the piece of the rival of the current player.
      */
-    public void updateBoard(List<Cell> squaresToUpdate, Piece currentPlayer, Piece otherPlayer) {
-        for (Cell toUpdate: squaresToUpdate) {
-            int row = toUpdate.getRow();
-            int col = toUpdate.getCol();
-
-            if (isSquareEmpty(row, col)) {
-                addAllEmpties(surroundingEmptySquares(row, col));
-
-                // no longer empty
-                removeEmpty(Cell.toSquareTag(row, col));
-            }
-
-            setSquare(currentPlayer, row, col);
-        }
-
-        // Update pieces counts of the players
-
-        addPieceAmount(currentPlayer, squaresToUpdate.size());
-
-        subtractPieceAmount(otherPlayer, squaresToUpdate.size() - 1);
-        // 1 for empty square - 1 of the new squares is empty and so isn't to be subtracted
-    }
+    public abstract void updateBoard(List<Cell> squaresToUpdate, Piece currentPlayer,
+                                     Piece otherPlayer);
 
     /**
-     * A method that receives as parameters a row and a column which represent
-     * a square in the board, and returns a Collection that contains all the empty squares
-     * that surround it (adjacent to it).
+     * A method that receives a square of a valid move, the players and a record to fill, and
+     * makes the move in place: places a piece of the current player on that square and flips the
+     * pieces that the move flips (they are found only now), while filling the record with
+     * everything that is needed to restore the board state (see unmakeMove). Also updates the
+     * piece count of both players accordingly.
      *
-     * The reason for that method is to improve performance so that the whole board won't be
-     * checked when there isn't really need for it, but instead only the relevant squares will.
+     * That way a search can walk a single board state instead of copying it for every position,
+     * and pays for the flips only of the moves that it actually makes.
      *
-     * @param row a row in the board.
-     * @param col a column in the board.
-     * @return a Collection that contains all the empty squares surrounding the received square.
+     * @param square the index of the square of a valid move of the current player.
+     * @param currentPlayer the piece of the player that makes the move.
+     * @param otherPlayer the piece of the rival of the current player.
+     * @param undo a record to fill so that the move can be unmade.
      */
-    public Collection<String> surroundingEmptySquares(int row, int col) {
-        Collection<String> adjacentEmpty = new HashSet<>();
-        int currentRow; // the current row index to check
-        int currentCol; // the current column index to check
-
-        for (int i=-1; i <= 1; i++)
-            for (int j=-1; j <= 1; j++) {
-                currentRow = row + i; // right/left/neither
-                currentCol = col + j; // up/down/neither
-
-                if (isInBoard(currentRow, currentCol) // in the board
-                        && !(i == 0 && j == 0) // not same square
-                        && isSquareEmpty(currentRow, currentCol)) // empty square
-
-                    // add it to the set
-                    adjacentEmpty.add(Cell.toSquareTag(currentRow, currentCol));
-            }
-
-        return adjacentEmpty;
-    }
+    public abstract void makeMove(int square, Piece currentPlayer, Piece otherPlayer,
+                                  UndoRecord undo);
 
     /**
-     * A method that gets as parameters the piece of the current player and of the rival of the
-     * current player, and builds and returns a HashMap (dictionary) that contains all the possible
-     * outcomes (new pieces) of available next moves of the player so that the key is the next
-     * move's square and the value is a List of Cells that holds the new pieces that could be
-     * obtained if the player chooses to play his next turn placing a piece on that square.
+     * A method that receives a record of the last move that was made (by makeMove) and unmakes
+     * it: restores the board state exactly as it was before the move.
      *
-     * The method that iterates over the relevant empty squares to check and for each of them,
-     * gets the possible obtainable squares if the player plays his next turn placing a piece on
-     * that empty square and adds them to a HashMap that contains the results if there are any
-     * obtainable squares moving this way (meaning if the choice is valid).
+     * @param undo the record of the last move that was made.
+     */
+    public abstract void unmakeMove(UndoRecord undo);
+
+    /**
+     * A method that gets as parameters the piece of the current player, the piece of the rival
+     * of the current player and a bitboard to fill (see BoardGeometry, with a word for every 64
+     * squares), and fills it with all the squares that the current player can place his piece on,
+     * without finding the flipped pieces of any of them.
      *
      * @param currentPlayer the piece of the current player.
      * @param nextPlayer the piece of the next player to play.
-     * @return a HashMap (dictionary) that contains the possible outcomes (new pieces) of available
-     * next moves of the player so that the key is the next move's square and the value is an array
-     * of cells that holds the new pieces that could be obtained if the player chooses to play his
-     * next turn placing a piece on that square, or if there aren't valid moves, finishes the game
-     * and returns an empty HashMap.
+     * @param moves a bitboard to fill with the valid moves of the current player.
      */
-    public HashMap<String, List<Cell>> validChoices(Piece currentPlayer, Piece nextPlayer) {
-
-        HashMap<String, List<Cell>> availableChoices = new HashMap<>();
-
-        // for every relevant empty square to check
-        for (String toCheck : this.emptyToCheck) {
-            int row = Cell.getTagRow(toCheck); // convert tag of row to string
-            int col = Cell.getTagCol(toCheck); // convert tag of column to string
-
-            List<Cell> nextAvailableSquares = nextAvailableSquares(currentPlayer,
-                    nextPlayer, row, col);
-
-            if (nextAvailableSquares.size() != 0) // possible obtainable squares
-                availableChoices.put(toCheck, nextAvailableSquares);
-        }
-
-        return availableChoices;
-    }
+    public abstract void generateMoveMask(Piece currentPlayer, Piece nextPlayer, long[] moves);
 
     /**
-     * A private method that receives as parameters the piece of the current player, the piece
-     * of the rival of the current player and a location of an empty square on the board
-     * represented by a row and a column, and returns a List of locations/cells in the board
-     * that the current player is able to achieve by playing the next move placing his piece
-     * on that square.
+     * A method that gets as parameters the piece of the current player, the piece of the rival
+     * of the current player and two bitboards to fill, and fills the first with all the squares
+     * that the current player can place his piece on, and - only if there are no such squares
+     * (the current player has to pass) - the second with all the squares that the rival can
+     * place his piece on, in the same sweep over the board.
      *
-     * The method iterates over all surrounding directions, and for each of them, if there are
-     * any squares that the current player can achieve/conquer/overcome by playing his next move
-     * to the received square, it adds them to a resulting ArrayList, and returns it as List.
+     * That way finding out whether the turn passes, or whether the game is over, takes a single
+     * call (if the current player has any valid move, the second bitboard is not to be used).
      *
-     * @param current current player's piece.
-     * @param rival the piece of the current player's rival.
-     * @param row a row in the board.
-     * @param col a column in the board.
-     * @return a List of Cells that contains all available squares by playing the next move to
-     * the received square.
+     * @param currentPlayer the piece of the current player.
+     * @param nextPlayer the piece of the next player to play.
+     * @param currentMoves a bitboard to fill with the valid moves of the current player.
+     * @param nextMoves a bitboard to fill with the valid moves of the next player, if the current
+     *                  player has none.
+     * @return true if the current player has any valid move, false otherwise.
      */
-    private List<Cell> nextAvailableSquares(Piece current, Piece rival, int row, int col) {
-        ArrayList<Cell> toChange = new ArrayList<>(); // squares to change to the current's pieces
-        ArrayList<Cell> currentList;
-
-        for (int i = -1; i <= 1; i++)
-            for (int j = -1; j <= 1; j++) {
-                currentList = goDirection(current, rival, row, col, i, j);
-                if (currentList != null)
-                    toChange.addAll(currentList);
-            }
-
-        if (toChange.size() != 0) // valid move
-            toChange.add(new Cell(row, col)); // add the current empty cell to the ArrayList
-
-        return toChange;
-    }
+    public abstract boolean generateMoveMasks(Piece currentPlayer, Piece nextPlayer,
+                                              long[] currentMoves, long[] nextMoves);
 
     /**
-     * A private method that receives as parameters the piece of the current player, the piece of
-     * the rival of that player, a row and a column which represent a current location of an empty
-     * square, and a direction to move to represented by horizontal and vertical indicators, and
-     * returns an ArrayList of squares (Cells) that the current player can achieve by playing his
-     * next turn moving to that square from the received direction, or null if that aren't such
-     * squares.
+     * A method that gets a player as a parameter and returns the amount of valid moves of that
+     * player, without finding the flipped pieces of any of them.
      *
-     * While in still in the board borders, the method moves from the empty square in the
-     * received direction, and firstly checks if the next piece in that direction is indeed a
-     * rival piece. If it isn't, that means that the current direction is of no benefit to the
-     * current player, and returns null. If it is, it keeps moving in that direction, until
-     * it gets to a piece of the current player, which means that there are squares to conquer,
-     * and it returns them. If it gets to an empty square once again, or exceeds the board
-     * borders without finding a "friendly" piece, that means that the player can't conquer/flip
-     * that square, and returns null.
-     *
-     * @param currentPlayer the piece of the current player.
-     * @param rival the piece of the rival player.
-     * @param row the row of the empty square to check.
-     * @param col the column of the empty square to check.
-     * @param goRow the vertical direction to check: 1 means go down, -1 means go up, and 0
-     *              means neither (stay).
-     * @param goCol the horizontal direction to check: 1 means go right, -1 means go left, and 0
-     *              means neither (stay).
-     * @return an ArrayList of squares (Cells) that the current player can achieve by playing his
-     * next turn moving to that square from the received direction, or null if that aren't
-     * such squares.
-     */
-    private ArrayList<Cell> goDirection(Piece currentPlayer, Piece rival,
-                                        int row, int col, int goRow, int goCol) {
-        if (!isSquareEmpty(row, col))
-            return null;
-
-        int currentRow = row + goRow; // 1, -1, or 0 -> (respectively) down, up or neither
-        int currentCol = col + goCol; // 1, -1, or 0 -> (respectively) right, left or neither
-
-        boolean isPassRival = false; // did we pass through the rival?
-        ArrayList<Cell> piecesToChange = new ArrayList<>(); // Pieces to change
-
-        // While we are in the board
-        while (isInBoard(currentRow, currentCol)) {
-            Piece currentSquare = getSquare(currentRow, currentCol);
-
-            // If the first square in the squares to check is indeed a rival's square
-            if (!isPassRival && currentSquare == rival)
-                isPassRival = true;
-
-            // If we have already gone through rival's squares
-            if (isPassRival) {
-
-                // We got to current player's square, meaning occupation is completed
-                if (currentSquare == currentPlayer)
-                    return piecesToChange;
-
-                // We got to an empty square, meaning occupation is failed
-                if (currentSquare == Piece.EMPTY)
-                    return null; // an empty square had cut the sequence
-
-                // Rival square, adding to the list of occupied squares
-                piecesToChange.add(new Cell(currentRow, currentCol));
-
-                currentRow += goRow; // Forward the iteration
-                currentCol += goCol; // Forward the iteration
-            }
-            else
-                return null; // first move was invalid
-        }
+     * @param player a player of the game.
+     * @return the amount of valid moves of the received player.
+     */
+    public abstract int countMoves(Piece player);
 
-        return null; // exceeded the board
-    }
+    /**
+     * A method that gets a player as a parameter and returns true if that player has any valid
+     * move, or false otherwise. The search stops at the first valid move that is found.
+     *
+     * @param player a player of the game.
+     * @return true if the received player has any valid move, false otherwise.
+     */
+    public abstract boolean hasAnyMove(Piece player);
 
     /**
-     * A method that gets a row and a column as parameters, and returns true if the square
-     * at these indexes is inside the board, or false otherwise.
+     * A method that gets as parameters a square, the piece of the current player and the piece
+     * of the rival of the current player, and returns true if the current player can place his
+     * piece on that square (the square is empty and placing a piece on it flips any piece), or
+     * false otherwise. Only the lines through the square are examined.
      *
-     * @param row a row (index).
-     * @param col a column (index).
-     * @return true if the square at the received row and column is inside the game board, or
-     * false otherwise.
+     * @param square the index of a square to check.
+     * @param currentPlayer the piece of the current player.
+     * @param nextPlayer the piece of the next player to play.
+     * @return true if the square is a valid move of the current player, false otherwise.
      */
-    public boolean isInBoard(int row, int col) {
-        return row < this.board.length && row >= 0 && col < this.board.length && col >=0;
-    }
+    public abstract boolean isValidMove(int square, Piece currentPlayer, Piece nextPlayer);
 
     /**
-     * A method that receives a board size (side length of the matrix) as a parameter, and
-     * initiates the board attribute to a new matrix of pieces according to that size.
+     * A method that gets as parameters a square of a valid move, the piece of the current player,
+     * the piece of the rival of the current player and a buffer of moves, and adds that move
+     * to the buffer with the squares that it flips (the moves that are already in the buffer
+     * are kept).
      *
-     * @param boardSize the length of the side of the board matrix.
+     * That way the flips are found only for the moves that need them (see ValidChoices).
+     *
+     * @param square the index of the square of a valid move of the current player.
+     * @param currentPlayer the piece of the current player.
+     * @param nextPlayer the piece of the next player to play.
+     * @param moves a buffer of moves to add the move to.
      */
-    public void initBoard(int boardSize) {
-        this.board = new Piece[boardSize][boardSize];
-    }
+    public abstract void resolveMove(int square, Piece currentPlayer, Piece nextPlayer,
+                                     MoveList moves);
 
     /**
      * A method that gets a matrix of pieces that represent a game board as a parameter and
-     * sets the board to be a clone of it.
+     * sets the board to be a copy of it. The pieces counts and the empty squares to check are
+     * derived from the received board.
      *
      * @param board the board to copy to the current board.
      */
-    public void copyBoard(Piece[][] board) {
-        this.board = cloneBoard(board);
-    }
+    public abstract void copyBoard(Piece[][] board);
 
     /**
-     * A method that gets as a parameter a Collection of Strings which represent the empty squares
-     * to check, and adds all the empty squares to check in it to the current board state's empty
-     * squares to check squares.
+     * A getter for a board cell- receives as parameters a row and a column, and returns the
+     * piece at those indexes (in the current board).
      *
-     * @param emptiesToAdd a Collection of Strings that each represent an empty square to add to
-     *                    the to the current empty squares to check.
+     * @param row a row in the board.
+     * @param col a column in the board.
+     * @return the piece at the received indexes.
      */
-    public void addAllEmpties(Collection<String> emptiesToAdd) {
-        this.emptyToCheck.addAll(emptiesToAdd);
-    }
+    public abstract Piece getSquare(int row, int col);
 
     /**
-     * A method that clears(discards) all the current empty pieces to check.
+     * A method that gets as parameters a player and a bitboard (of the board size, see
+     * BoardGeometry), and fills the bitboard with the pieces of that player.
+     *
+     * @param player a player of the game.
+     * @param discs a bitboard to fill with the pieces of the received player.
      */
-    public void clearEmptyToCheck() {
-        this.emptyToCheck.clear();
-    }
+    public abstract void copyDiscs(Piece player, long[] discs);
 
     /**
-     * A method that gets as parameters a piece of a player and an amount to put, and sets that
-     * player's piece count to the received amount to put.
+     * A method that gets as a parameter a player, and returns the piece amount of that player.
      *
-     * @param player a player of which to update the piece amount.
-     * @param amountToPut the amount of pieces to change the receives player's pieces count to.
+     * @param player a player of which to get the piece amount.
+     * @return the piece amount of the received player.
      */
-    public void putPieceAmount(Piece player, int amountToPut) {
-        this.pieceCount.put(player, amountToPut);
-    }
+    public abstract int getPieceAmount(Piece player);
 
     /**
-     * A private method that gets as parameters a piece of a player and an amount to add, and
-     * adds that amount to that player's pieces count.
+     * A clone getter for the empty squares to check Collection- returns a clone of the
+     * current empty to check Collection (squares as String tags).
      *
-     * @param player a player of which to update the piece amount.
-     * @param amountToAdd the amount of pieces to add to the receives player's pieces count.
+     * @return a clone of the current empty to check Collection.
      */
-    @SuppressWarnings("ConstantConditions") // assuming the player is valid
-    private void addPieceAmount(Piece player, int amountToAdd) {
-        this.pieceCount.put(player, this.pieceCount.get(player) + amountToAdd);
-    }
+    public abstract Collection<String> getEmptyToCheckClone();
 
     /**
-     * A private method that gets as parameters a piece of a player and an amount to subtract, and
-     * subtracts that amount from that player's pieces count.
+     * A method that gets as a parameter the player whose turn it is, and returns the Zobrist hash
+     * of the position: a 64 bits number that identifies it (equal positions have equal hashes,
+     * and different positions have different hashes in all likelihood - see ZobristKeys).
      *
-     * @param player a player of which to update the piece amount.
-     * @param amountToSubtract the amount of pieces to subtract from the receives player's
-     *                        pieces count.
+     * The hash of the pieces is kept up to date by every change of the board state, so the
+     * method doesn't go over the board.
+     *
+     * @param playerToMove the player whose turn it is.
+     * @return the Zobrist hash of the position.
      */
-    private void subtractPieceAmount(Piece player, int amountToSubtract) {
-        addPieceAmount(player, amountToSubtract * -1);
+    public long getZobristHash(Piece playerToMove) {
+        return playerToMove == this.secondPlayer ?
+                this.hash ^ this.zobristKeys.getSideKey() : this.hash;
     }
 
     /**
-     * A method that clears the pieces counts of the players.
+     * A method that gets as parameters a player and a bitboard of pieces of that player that are
+     * known to be stable (can never be flipped again, for example the stable discs that were
+     * found earlier on the way to the current position - a stable disc stays stable), and adds
+     * to it the other stable discs of the player that can be found (see StableDiscs).
+     *
+     * The stable discs that are found are a lower bound: every one of them is truly stable, but
+     * some stable discs may be missed.
+     *
+     * @param player a player of the game.
+     * @param stable a bitboard of known stable discs of the player (may be empty), that is
+     *               filled with all the stable discs that were found.
+     * @return the amount of stable discs of the received player that were found.
      */
-    public void clearPieceAmounts() {
-        this.pieceCount.clear();
+    public int findStableDiscs(Piece player, long[] stable) {
+        if (this.stableDiscs == null) // not shared by copies, so each copy can search on it's own
+            this.stableDiscs = new StableDiscs(this.boardSize);
+
+        return this.stableDiscs.find(this, player, stable);
     }
 
     /**
-     * A method that gets as a parameter a player, and returns the piece amount of that player.
+     * A method that gets as parameters a player and a bitboard of stable discs of his rival (as
+     * in findStableDiscs), and returns an upper bound of the piece difference (the player's
+     * pieces minus his rival's) at the end of the game: the rival keeps at least his stable
+     * discs, and the player gets at most all the other squares.
      *
-     * @param player a player of which to get the piece amount.
-     * @return the piece amount of the received player.
+     * An exact (endgame) search can cut off a position whose bound can't beat the best result
+     * that was already guaranteed.
+     *
+     * @param player a player of the game.
+     * @param rivalStable a bitboard of known stable discs of the rival (may be empty), that is
+     *                    filled with all the stable discs of the rival that were found.
+     * @return an upper bound of the final piece difference of the received player.
      */
-    @SuppressWarnings("ConstantConditions") // assuming the player is valid
-    public int getPieceAmount(Piece player) {
-        return this.pieceCount.get(player);
+    public int getStabilityBound(Piece player, long[] rivalStable) {
+        int rivalStableCount = findStableDiscs(getRival(player), rivalStable);
+
+        return this.boardSize * this.boardSize - 2 * rivalStableCount;
     }
 
     /**
-     * A clone getter for the board- returns a clone of the current board (deep copy).
+     * A protected method that gets as parameters a square and a player, and toggles (XORs) the
+     * key of the player's piece on that square in the hash: adds the piece if it's not in the
+     * hash, or removes it otherwise.
      *
-     * @return a clone of the current board.
+     * @param square the index of a square.
+     * @param player the player of the piece to toggle.
      */
-    public Piece[][] getBoardClone() {
-        return cloneBoard(this.board);
+    protected void hashPiece(int square, Piece player) {
+        this.hash ^= this.zobristKeys.getKey(square, player == this.firstPlayer);
     }
 
     /**
-     * A "raw" getter for the board- returns a reference to the current board matrix.
+     * A protected method that gets as parameters a square that is about to be updated to a piece
+     * of the current player, the piece that is currently on it and the current player, and
+     * updates the hash accordingly (to be called before the square is updated).
      *
-     * @return a reference to the current board matrix.
+     * @param square the index of the square to update.
+     * @param previous the piece that is currently on the square.
+     * @param currentPlayer the player that the square is updated to.
      */
-    public Piece[][] getBoardRaw() {
-        return this.board;
+    protected void hashUpdate(int square, Piece previous, Piece currentPlayer) {
+        if (previous == currentPlayer) // nothing changes
+            return;
+
+        if (previous != Piece.EMPTY)
+            hashPiece(square, previous);
+
+        hashPiece(square, currentPlayer);
     }
 
     /**
-     * A method that receives as parameters a piece, a row and a column, and sets the board cell
-     * at those indexes to be the received piece.
+     * A protected method that gets as a parameter a record of a move that was just made, saves
+     * the hash in it (for unmaking the move) and updates the hash with the move: the placed piece
+     * and both keys of every flipped piece.
      *
-     * @param piece a piece to change the square to.
-     * @param row the row of the desired square to change.
-     * @param col the column of the desired square to change.
+     * @param undo the record of the move that was just made.
      */
-    public void setSquare(Piece piece, int row, int col) {
-        this.board[row][col] = piece;
+    protected void hashMove(UndoRecord undo) {
+        long currentHash = this.hash;
+        boolean isFirstMoving = undo.getCurrentPlayer() == this.firstPlayer;
+
+        undo.setSavedHash(currentHash);
+
+        currentHash ^= this.zobristKeys.getKey(undo.getSquare(), isFirstMoving);
+
+        for (int i = 0; i < undo.getFlipsCount(); i++) {
+            int flip = undo.getFlip(i);
+
+            currentHash ^= this.zobristKeys.getKey(flip, true)
+                    ^ this.zobristKeys.getKey(flip, false);
+        }
+
+        this.hash = currentHash;
     }
 
     /**
-     * A getter for a board cell- receives as parameters a row and a column, and returns the
-     * piece at those indexes (in the current board).
+     * A protected method that computes the hash of the pieces over the whole board, for when
+     * the board was replaced (see copyBoard).
+     */
+    protected void rehash() {
+        this.hash = 0;
+
+        for (int row = 0; row < this.boardSize; row++)
+            for (int col = 0; col < this.boardSize; col++)
+                if (!isSquareEmpty(row, col))
+                    hashPiece(Cell.toSquareIndex(row, col, this.boardSize),
+                            getSquare(row, col));
+    }
+
+    /**
+     * A clone getter for the board- returns a clone of the current board (deep copy).
      *
-     * @param row a row in the board.
-     * @param col a column in the board.
-     * @return the piece at the received indexes.
+     * @return a clone of the current board.
      */
-    public Piece getSquare(int row, int col) {
-        return this.board[row][col];
+    public Piece[][] getBoardClone() {
+        Piece[][] res = new Piece[this.boardSize][this.boardSize];
+
+        for (int row = 0; row < this.boardSize; row++)
+            for (int col = 0; col < this.boardSize; col++)
+                res[row][col] = getSquare(row, col);
+
+        return res;
     }
 
     /**
-     * A clone getter for the empty squares to check Collection- returns a clone of the
-     * current empty to check Collection.
+     * A method that gets a row and a column as parameters, and returns true if the square
+     * at these indexes is inside the board, or false otherwise.
      *
-     * @return a clone of the current empty to check Collection.
+     * @param row a row (index).
+     * @param col a column (index).
+     * @return true if the square at the received row and column is inside the game board, or
+     * false otherwise.
      */
-    public Collection<String> getEmptyToCheckClone() {
-        return cloneEmptyToCheck(this.emptyToCheck);
+    public boolean isInBoard(int row, int col) {
+        return row < this.boardSize && row >= 0 && col < this.boardSize && col >= 0;
     }
 
     /**
@@ -423,55 +415,55 @@ public class BoardState {
      * @return true if the square at the received indexes is empty, false otherwise.
      */
     public boolean isSquareEmpty(int row, int col) {
-        return this.board[row][col] == Piece.EMPTY;
+        return getSquare(row, col) == Piece.EMPTY;
     }
 
     /**
-     * A method that receives as a parameter a String that is a tag of a new empty square to add
-     * to the current empty squares to check, and adds it.
+     * An overloading method that gets as a parameter an index of a square, and returns true if
+     * the square is empty, or false otherwise.
      *
-     * @param newEmptyToCheck a String that is a tag of a new empty square to add to the current
-     *                        empty squares to check.
+     * @param square an index of a square to check (see Cell.toSquareIndex).
+     * @return true if the received square is empty, false otherwise.
      */
-    public void addEmpty(String newEmptyToCheck) {
-        this.emptyToCheck.add(newEmptyToCheck);
+    public boolean isSquareEmpty(int square) {
+        return isSquareEmpty(Cell.getIndexRow(square, this.boardSize),
+                Cell.getIndexCol(square, this.boardSize));
     }
 
     /**
-     * A private method that receives as a parameter a String that is a tag of a new empty
-     * square to remove from the current empty squares to check, and removes it.
+     * A getter for the board size.
      *
-     * @param emptyToRemove a String that is a tag of a new empty square to remove from the
-     *                      current empty squares to check.
+     * @return the length of the side of the board matrix.
      */
-    private void removeEmpty(String emptyToRemove) {
-        this.emptyToCheck.remove(emptyToRemove);
+    public int getBoardSize() {
+        return this.boardSize;
     }
 
     /**
-     * A static function that gets a game board (two-dimensional array of pieces), and returns a
-     * clone of it (deep copy).
+     * A method that gets a player of the game as a parameter and returns his rival.
      *
-     * @param board the two-dimensional array of pieces to clone.
-     * @return a deep copy of the received array.
+     * @param player a player of the game.
+     * @return the rival of the received player.
      */
-    private static Piece[][] cloneBoard(Piece[][] board) {
-        Piece[][] res = new Piece[board.length][board.length];
-
-        for (int i = 0; i < res.length; i++)
-            System.arraycopy(board[i], 0, res[i], 0, res[i].length);
+    public Piece getRival(Piece player) {
+        return player == this.firstPlayer ? this.secondPlayer : this.firstPlayer;
+    }
 
-        return res;
+    /**
+     * A getter for the first player.
+     *
+     * @return the first player of the game.
+     */
+    public Piece getFirstPlayer() {
+        return this.firstPlayer;
     }
 
     /**
-     * A static function that gets an empty to check Collection, and returns a
-     * clone of it (deep copy).
+     * A getter for the second player.
      *
-     * @param emptyToCheck the empty to check Collection to clone.
-     * @return a deep copy of the received Collection.
+     * @return the second player of the game.
      */
-    private static Collection<String> cloneEmptyToCheck(Collection<String> emptyToCheck) {
-        return new HashSet<>(emptyToCheck);
+    public Piece getSecondPlayer() {
+        return this.secondPlayer;
     }
 }
@@ -0,0 +1,136 @@
+package com.itayc.reversi;
+
+/**
+ * A class that holds board states that are allocated in advance, one for every ply (depth) of a
+ * search, so that a search that needs a copy of a position borrows the slot of it's ply and
+ * copies the position into it (see BoardState.copyFrom), instead of creating a new board state.
+ * The slots are of the implementation that the game uses for the board size (see
+ * BoardState.newInstance).
+ *
+ * Every thread has it's own arena (see getInstance), so searches on different threads never
+ * share a slot and no locking is needed. A search that makes and unmakes the moves on a single
+ * position (like MinimaxSearch) borrows only the root slot; the slots of the deeper plies are
+ * for searches that keep a position for every ply. The arena keeps the highest amount of slots
+ * that were in use at once (the high water mark), so that it's size can be checked against what
+ * the searches actually need.
+ */
+public class BoardStateArena {
+
+    // Attributes
+
+    // the arena of every thread (created on the first request of the thread)
+    private static final ThreadLocal<BoardStateArena> arenas = new ThreadLocal<>();
+
+    private final int boardSize; // the length of the side of the board matrix
+    private final Piece firstPlayer; // the first player of the game
+    private final Piece secondPlayer; // the second player of the game
+    private final BoardState[] slots; // the board state of every ply
+    private int highWaterMark; // the highest amount of slots that were in use at once
+
+
+    // Constructor
+
+    /**
+     * Constructor of the class: receives a board size, the players of the game and an amount of
+     * plies, and allocates a board state for every ply.
+     *
+     * @param boardSize the length of the side of the board matrix.
+     * @param firstPlayer the first player of the game.
+     * @param secondPlayer the second player of the game.
+     * @param plies the amount of plies (slots) to allocate.
+     */
+    private BoardStateArena(int boardSize, Piece firstPlayer, Piece secondPlayer, int plies) {
+        this.boardSize = boardSize;
+        this.firstPlayer = firstPlayer;
+        this.secondPlayer = secondPlayer;
+        this.slots = new BoardState[plies];
+
+        for (int ply = 0; ply < plies; ply++)
+            this.slots[ply] = BoardState.newInstance(boardSize, firstPlayer, secondPlayer);
+    }
+
+
+    // Methods
+
+    /**
+     * A static function that receives a board size, the players of the game and an amount of
+     * plies (for example the depth of the difficulty plus the root), and returns the arena of
+     * the current thread for that board size and players, with at least that amount of slots.
+     * A new arena is allocated only if the thread has none, or if it's arena doesn't suit the
+     * request (another board size or players, or too few slots).
+     *
+     * @param boardSize the length of the side of the board matrix.
+     * @param firstPlayer the first player of the game.
+     * @param secondPlayer the second player of the game.
+     * @param plies the least amount of plies (slots) to get.
+     * @return the arena of the current thread, suitable for the received board size, players
+     * and plies.
+     */
+    public static BoardStateArena getInstance(int boardSize, Piece firstPlayer,
+                                              Piece secondPlayer, int plies) {
+        BoardStateArena arena = arenas.get();
+
+        if (arena == null || arena.slots.length < plies || arena.boardSize != boardSize
+                || arena.firstPlayer != firstPlayer || arena.secondPlayer != secondPlayer) {
+            arena = new BoardStateArena(boardSize, firstPlayer, secondPlayer, plies);
+            arenas.set(arena);
+        }
+
+        return arena;
+    }
+
+    /**
+     * A method that receives a ply and a board state (of the board size and players of the
+     * arena, see BoardState.newInstance), and copies the board state into the slot of that ply
+     * and returns the slot. The slot is the borrower's until the same ply is borrowed again.
+     *
+     * @param ply a ply (an index of a slot, less than the capacity).
+     * @param source a board state to copy into the slot.
+     * @return the slot of the received ply, holding a copy of the received board state.
+     */
+    public BoardState borrow(int ply, BoardState source) {
+        BoardState slot = this.slots[ply];
+
+        slot.copyFrom(source);
+        this.highWaterMark = Math.max(this.highWaterMark, ply + 1);
+
+        return slot;
+    }
+
+    /**
+     * A method that receives a ply and a board (of the board size of the arena), and copies the
+     * board into the slot of that ply and returns the slot. The slot is the borrower's until the
+     * same ply is borrowed again.
+     *
+     * @param ply a ply (an index of a slot, less than the capacity).
+     * @param board a board to copy into the slot.
+     * @return the slot of the received ply, holding a copy of the received board.
+     */
+    public BoardState borrow(int ply, Piece[][] board) {
+        BoardState slot = this.slots[ply];
+
+        slot.copyBoard(board);
+        this.highWaterMark = Math.max(this.highWaterMark, ply + 1);
+
+        return slot;
+    }
+
+    /**
+     * A getter for the capacity of the arena.
+     *
+     * @return the amount of slots (plies) of the arena.
+     */
+    public int getCapacity() {
+        return this.slots.length;
+    }
+
+    /**
+     * A getter for the high water mark of the arena.
+     *
+     * @return the highest amount of slots that were in use at once (the deepest borrowed
+     * ply plus one).
+     */
+    public int getHighWaterMark() {
+        return this.highWaterMark;
+    }
+}
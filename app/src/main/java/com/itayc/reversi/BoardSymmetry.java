@@ -0,0 +1,264 @@
+package com.itayc.reversi;
+
+/**
+ * A class that maps positions of a board size between their 8 symmetric orientations (the
+ * rotations and the reflections of the square board), so that the symmetric copies of a
+ * position can be treated as a single position (for example by a cache of positions).
+ *
+ * A symmetry is a number between 0 and 7 whose bits tell what it does to a square, in order:
+ * swap the row and the column (TRANSPOSE), flip the row (FLIP_ROWS) and flip the column
+ * (FLIP_COLS). Symmetry 0 (IDENTITY) keeps the position as it is.
+ *
+ * The canonical orientation of a position is the symmetry that gives the least Zobrist hash. The
+ * hash of an orientation is the hash of the position that the symmetry maps the position to, so
+ * it uses the same independent keys as the hash of the position (see ZobristKeys), and the
+ * canonical hash is as strong as the hash of a single position. The hashes of all the 8
+ * orientations are found together in a single pass over the board, only when they are asked
+ * for, so making and unmaking moves keeps updating the hash of the position alone.
+ *
+ * An instance is created once for every board size (on the first request) and is shared, so it
+ * must never be modified after it was created.
+ */
+public class BoardSymmetry {
+
+    // Attributes
+
+    public static final int SYMMETRIES = 8; // amount of symmetries of a square board
+    public static final int IDENTITY = 0; // the symmetry that keeps the position as it is
+    private static final int TRANSPOSE = 1; // bit of swapping the row and the column
+    private static final int FLIP_ROWS = 2; // bit of flipping the row
+    private static final int FLIP_COLS = 4; // bit of flipping the column
+
+    // the symmetries of the board sizes
+    private static final BoardSymmetry[] symmetries =
+            new BoardSymmetry[BoardModel.MAX_BOARD_SIZE + 1];
+
+    private final int boardSize; // the length of the side of the board matrix
+    private final int[][] squares; // the square that every square is mapped to, by symmetry
+    private final int[] inverses; // the symmetry that undoes every symmetry
+
+
+    // Constructor
+
+    /**
+     * Constructor of the class: receives a board size and computes the mapping of the squares.
+     *
+     * @param boardSize the length of the side of the board matrix.
+     */
+    private BoardSymmetry(int boardSize) {
+        int squareCount = boardSize * boardSize;
+
+        this.boardSize = boardSize;
+        this.squares = new int[SYMMETRIES][squareCount];
+        this.inverses = new int[SYMMETRIES];
+
+        for (int symmetry = 0; symmetry < SYMMETRIES; symmetry++)
+            for (int square = 0; square < squareCount; square++)
+                this.squares[symmetry][square] = transform(symmetry, square, boardSize);
+
+        // every symmetry is undone by the symmetry that maps all the squares back
+        for (int symmetry = 0; symmetry < SYMMETRIES; symmetry++)
+            for (int inverse = 0; inverse < SYMMETRIES; inverse++)
+                if (isInverse(symmetry, inverse))
+                    this.inverses[symmetry] = inverse;
+    }
+
+
+    // Methods
+
+    /**
+     * A static function that receives a board size and returns the symmetries of that board
+     * size. They are computed on the first request, and shared afterwards.
+     *
+     * @param boardSize the length of the side of the board matrix.
+     * @return the symmetries of the received board size.
+     */
+    public static synchronized BoardSymmetry getInstance(int boardSize) {
+        if (symmetries[boardSize] == null)
+            symmetries[boardSize] = new BoardSymmetry(boardSize);
+
+        return symmetries[boardSize];
+    }
+
+    /**
+     * A static function that receives a symmetry, a square and a board size, and returns the
+     * square that the symmetry maps the received square to.
+     *
+     * @param symmetry a symmetry (0 - 7).
+     * @param square the index of a square.
+     * @param boardSize the length of the side of the board matrix.
+     * @return the index of the square that the received square is mapped to.
+     */
+    private static int transform(int symmetry, int square, int boardSize) {
+        int row = Cell.getIndexRow(square, boardSize);
+        int col = Cell.getIndexCol(square, boardSize);
+
+        if ((symmetry & TRANSPOSE) != 0) {
+            int temp = row;
+            row = col;
+            col = temp;
+        }
+
+        if ((symmetry & FLIP_ROWS) != 0)
+            row = boardSize - 1 - row;
+
+        if ((symmetry & FLIP_COLS) != 0)
+            col = boardSize - 1 - col;
+
+        return Cell.toSquareIndex(row, col, boardSize);
+    }
+
+    /**
+     * A private method that receives two symmetries and returns true if the second undoes the
+     * first (maps every square back to where it was), or false otherwise.
+     *
+     * @param symmetry a symmetry.
+     * @param inverse a symmetry to check.
+     * @return true if the second symmetry undoes the first, false otherwise.
+     */
+    private boolean isInverse(int symmetry, int inverse) {
+        for (int square = 0; square < this.squares[symmetry].length; square++)
+            if (this.squares[inverse][this.squares[symmetry][square]] != square)
+                return false;
+
+        return true;
+    }
+
+    /**
+     * A method that receives a board state and returns the symmetry that maps it to it's
+     * canonical orientation (the orientation with the least hash of the pieces).
+     *
+     * @param boardState a board state of the board size.
+     * @return the symmetry that maps the position to it's canonical orientation.
+     */
+    public int getCanonicalSymmetry(BoardState boardState) {
+        long[] hashes = getOrientedHashes(boardState);
+        int canonicalSymmetry = IDENTITY;
+
+        for (int symmetry = IDENTITY + 1; symmetry < SYMMETRIES; symmetry++)
+            if (hashes[symmetry] < hashes[canonicalSymmetry])
+                canonicalSymmetry = symmetry;
+
+        return canonicalSymmetry;
+    }
+
+    /**
+     * A method that receives a board state and the player whose turn it is, and returns the
+     * canonical Zobrist hash of the position: the same for all the symmetric orientations of it.
+     *
+     * @param boardState a board state of the board size.
+     * @param playerToMove the player whose turn it is.
+     * @return the canonical Zobrist hash of the position.
+     */
+    public long getCanonicalHash(BoardState boardState, Piece playerToMove) {
+        long[] hashes = getOrientedHashes(boardState);
+        long canonicalHash = hashes[IDENTITY];
+
+        for (int symmetry = IDENTITY + 1; symmetry < SYMMETRIES; symmetry++)
+            canonicalHash = Math.min(canonicalHash, hashes[symmetry]);
+
+        // the side to move doesn't change by a symmetry, so it's added after
+        return canonicalHash ^ (boardState.getZobristHash(playerToMove) ^ hashes[IDENTITY]);
+    }
+
+    /**
+     * A private method that receives a board state and returns the hashes of the pieces of all
+     * the 8 orientations of it's position (by symmetry), found in a single pass over the board:
+     * the key of a piece in an orientation is the key of the square that the symmetry maps it to.
+     *
+     * @param boardState a board state of the board size.
+     * @return the hashes of the pieces of all the orientations of the position.
+     */
+    private long[] getOrientedHashes(BoardState boardState) {
+        ZobristKeys keys = ZobristKeys.getInstance(this.boardSize);
+        Piece firstPlayer = boardState.getFirstPlayer();
+        long[] hashes = new long[SYMMETRIES];
+
+        for (int square = 0; square < this.squares[IDENTITY].length; square++) {
+            Piece piece = boardState.getSquare(Cell.getIndexRow(square, this.boardSize),
+                    Cell.getIndexCol(square, this.boardSize));
+
+            if (piece != Piece.EMPTY)
+                for (int symmetry = 0; symmetry < SYMMETRIES; symmetry++)
+                    hashes[symmetry] ^= keys.getKey(this.squares[symmetry][square],
+                            piece == firstPlayer);
+        }
+
+        return hashes;
+    }
+
+    /**
+     * A method that receives a symmetry and a square, and returns the square that the symmetry
+     * maps the received square to (for example a move in the canonical orientation).
+     *
+     * @param symmetry a symmetry (0 - 7).
+     * @param square the index of a square.
+     * @return the index of the square that the received square is mapped to.
+     */
+    public int transformSquare(int symmetry, int square) {
+        return this.squares[symmetry][square];
+    }
+
+    /**
+     * A method that receives a symmetry and a square that the symmetry mapped a square to, and
+     * returns the original square (for example a move back from the canonical orientation).
+     *
+     * @param symmetry a symmetry (0 - 7).
+     * @param square the index of a square that the symmetry mapped a square to.
+     * @return the index of the original square.
+     */
+    public int inverseSquare(int symmetry, int square) {
+        return this.squares[this.inverses[symmetry]][square];
+    }
+
+    /**
+     * A method that receives a symmetry and returns the symmetry that undoes it.
+     *
+     * @param symmetry a symmetry (0 - 7).
+     * @return the symmetry that undoes the received symmetry.
+     */
+    public int getInverse(int symmetry) {
+        return this.inverses[symmetry];
+    }
+
+    /**
+     * A method that receives a symmetry, a bitboard of squares (for example valid moves) and a
+     * bitboard to fill, and fills it with the squares that the symmetry maps the received
+     * squares to.
+     *
+     * @param symmetry a symmetry (0 - 7).
+     * @param bits a bitboard of squares.
+     * @param transformed a bitboard to fill with the mapped squares (not the received bitboard).
+     */
+    public void transformBits(int symmetry, long[] bits, long[] transformed) {
+        for (int word = 0; word < transformed.length; word++)
+            transformed[word] = 0;
+
+        for (int square = BoardGeometry.nextSetBit(bits, 0); square != -1;
+             square = BoardGeometry.nextSetBit(bits, square + 1))
+            BoardGeometry.setBit(transformed, this.squares[symmetry][square]);
+    }
+
+    /**
+     * A method that receives a symmetry and a board, and returns a new board that the symmetry
+     * maps the received board to.
+     *
+     * @param symmetry a symmetry (0 - 7).
+     * @param board a matrix of pieces of the board size.
+     * @return a new matrix of the pieces of the received board, mapped by the symmetry.
+     */
+    public Piece[][] transformBoard(int symmetry, Piece[][] board) {
+        Piece[][] transformed = new Piece[this.boardSize][this.boardSize];
+
+        for (int square = 0; square < this.squares[symmetry].length; square++) {
+            int mapped = this.squares[symmetry][square];
+
+            transformed[Cell.getIndexRow(mapped, this.boardSize)]
+                    [Cell.getIndexCol(mapped, this.boardSize)] =
+                    board[Cell.getIndexRow(square, this.boardSize)]
+                            [Cell.getIndexCol(square, this.boardSize)];
+        }
+
+        return transformed;
+    }
+}
@@ -0,0 +1,109 @@
+package com.itayc.reversi;
+
+/**
+ * A class that represents a request to stop a calculation that runs on another thread (for
+ * example the search of a computer's turn, see MinimaxSearch). The calculation checks the token
+ * from time to time, and when it sees that it was cancelled it stops as soon as it can and
+ * acknowledges it (see acknowledge).
+ *
+ * The time from the cancellation until the acknowledgement (the cancel latency) of every
+ * calculation that was stopped is kept, and the amount, average and maximum of all the cancel
+ * latencies are kept for the whole application (see getCancelCount).
+ */
+public class CancellationToken {
+
+    // Attributes
+
+    private static int cancelCount; // amount of calculations that were stopped by a cancellation
+    private static long totalCancelLatency; // sum of the cancel latencies, in nanoseconds
+    private static long maxCancelLatency; // the highest cancel latency, in nanoseconds
+
+    private volatile boolean isCancelled; // true if the token was cancelled, false otherwise
+    private volatile long cancelTime; // the time stamp of the cancellation, in nanoseconds
+    private long cancelLatency = -1; // the cancel latency in nanoseconds, or -1 if the
+    // calculation wasn't stopped by the cancellation
+
+
+    // Methods
+
+    /**
+     * A method that cancels the token (may be called on any thread). Cancelling a token that
+     * was already cancelled does nothing.
+     */
+    public synchronized void cancel() {
+        if (!this.isCancelled) {
+            this.cancelTime = System.nanoTime();
+            this.isCancelled = true;
+        }
+    }
+
+    /**
+     * A method that returns true if the token was cancelled, or false otherwise. It's cheap
+     * enough to be called often by the calculation.
+     *
+     * @return true if the token was cancelled, or false otherwise.
+     */
+    public boolean isCancelled() {
+        return this.isCancelled;
+    }
+
+    /**
+     * A method that is called by the calculation when it has stopped because the token was
+     * cancelled: it keeps the cancel latency (the time since the cancellation).
+     */
+    public void acknowledge() {
+        if (this.isCancelled && this.cancelLatency == -1) {
+            this.cancelLatency = System.nanoTime() - this.cancelTime;
+            addCancelLatency(this.cancelLatency);
+        }
+    }
+
+    /**
+     * A getter for the cancel latency of the calculation of the token.
+     *
+     * @return the time from the cancellation until the calculation stopped in nanoseconds, or -1
+     * if the calculation wasn't stopped by a cancellation (yet).
+     */
+    public long getCancelLatency() {
+        return this.cancelLatency;
+    }
+
+    /**
+     * A private static function that receives a cancel latency and adds it to the cancel
+     * latencies of the application.
+     *
+     * @param cancelLatency a cancel latency, in nanoseconds.
+     */
+    private static synchronized void addCancelLatency(long cancelLatency) {
+        cancelCount++;
+        totalCancelLatency += cancelLatency;
+        maxCancelLatency = Math.max(maxCancelLatency, cancelLatency);
+    }
+
+    /**
+     * A static getter for the amount of calculations that were stopped by a cancellation.
+     *
+     * @return the amount of calculations that were stopped by a cancellation.
+     */
+    public static synchronized int getCancelCount() {
+        return cancelCount;
+    }
+
+    /**
+     * A static getter for the average cancel latency of the calculations that were stopped.
+     *
+     * @return the average cancel latency in nanoseconds, or 0 if no calculation was stopped.
+     */
+    public static synchronized long getAverageCancelLatency() {
+        return cancelCount == 0 ? 0 : totalCancelLatency / cancelCount;
+    }
+
+    /**
+     * A static getter for the highest cancel latency of the calculations that were stopped.
+     *
+     * @return the highest cancel latency in nanoseconds, or 0 if no calculation was stopped.
+     */
+    public static synchronized long getMaxCancelLatency() {
+        return maxCancelLatency;
+    }
+}
@@ -2,6 +2,10 @@ package com.itayc.reversi;
 
 /**
  * A class used to represent a square (cell) in the game board matrix.
+ *
+ * A Cell is immutable, and there is a single instance for every square of every board size (see
+ * getInstance), so that the board states and the game activity share the same instances instead
+ * of allocating new ones over and over.
  */
 public class Cell { // Square locations in the board.
 
@@ -10,6 +14,9 @@ public class Cell { // Square locations in the board.
     // delimiter for String tag representation of the cell
     private static final String DELIMITER = SettingsManager.getAvailableDelimiter();
 
+    // the cells of the board sizes, by square index
+    private static final Cell[][] cells = new Cell[BoardModel.MAX_BOARD_SIZE + 1][];
+
     private final int row; // row in the board
     private final int col; // column in the board
 
@@ -17,12 +24,13 @@ public class Cell { // Square locations in the board.
     // Constructor
 
     /**
-     * Constructor of the class: gets a row and a column as parameters.
+     * Constructor of the class: gets a row and a column as parameters. Private, since the
+     * instances are shared (see getInstance).
      *
      * @param row the row of the Cell in the matrix.
      * @param col the column of the Cell in the matrix.
      */
-    public Cell(int row, int col) {
+    private Cell(int row, int col) {
         this.row = row;
         this.col = col;
     }
@@ -30,6 +38,43 @@ public class Cell { // Square locations in the board.
 
     // Methods
 
+    /**
+     * A static function that gets a board size as a parameter, and returns the cells of all the
+     * squares of that board size, by square index (see toSquareIndex). The cells are created on
+     * the first request, and shared afterwards.
+     *
+     * Note that the returned array is NOT a copy, therefore it is not to be modified.
+     *
+     * @param boardSize the length of the side of the board matrix.
+     * @return the cells of the received board size, by square index.
+     */
+    public static synchronized Cell[] getCells(int boardSize) {
+        if (cells[boardSize] == null) {
+            Cell[] sizeCells = new Cell[boardSize * boardSize];
+
+            for (int square = 0; square < sizeCells.length; square++)
+                sizeCells[square] = new Cell(getIndexRow(square, boardSize),
+                        getIndexCol(square, boardSize));
+
+            cells[boardSize] = sizeCells;
+        }
+
+        return cells[boardSize];
+    }
+
+    /**
+     * A static function that gets a row, a column and a board size as parameters, and returns
+     * the (shared) cell at that row and column.
+     *
+     * @param row a row.
+     * @param col a column.
+     * @param boardSize the length of the side of the board matrix.
+     * @return the cell at the received row and column.
+     */
+    public static Cell getInstance(int row, int col, int boardSize) {
+        return getCells(boardSize)[toSquareIndex(row, col, boardSize)];
+    }
+
     /**
      * A getter for the row attribute.
      *
@@ -48,6 +93,43 @@ public class Cell { // Square locations in the board.
         return this.col;
     }
 
+    /**
+     * A static function that gets a row, a column and a board size as parameters, and returns
+     * the index of the square at that row and column (row * boardSize + col).
+     *
+     * @param row a row.
+     * @param col a column.
+     * @param boardSize the length of the side of the board matrix.
+     * @return the index of the square at the received row and column.
+     */
+    public static int toSquareIndex(int row, int col, int boardSize) {
+        return row * boardSize + col;
+    }
+
+    /**
+     * A static function that gets an index of a square and a board size as parameters,
+     * and returns the row of that square.
+     *
+     * @param index an index of a square.
+     * @param boardSize the length of the side of the board matrix.
+     * @return the row of the received square.
+     */
+    public static int getIndexRow(int index, int boardSize) {
+        return index / boardSize;
+    }
+
+    /**
+     * A static function that gets an index of a square and a board size as parameters,
+     * and returns the column of that square.
+     *
+     * @param index an index of a square.
+     * @param boardSize the length of the side of the board matrix.
+     * @return the column of the received square.
+     */
+    public static int getIndexCol(int index, int boardSize) {
+        return index % boardSize;
+    }
+
     /**
      * A static function that gets a row and a column as parameters,
      * and returns them in String tag representation.
@@ -106,4 +188,22 @@ public class Cell { // Square locations in the board.
         return tag.split(DELIMITER)[2];
     }
 
+    @Override
+    public boolean equals(Object other) {
+        if (this == other)
+            return true;
+
+        if (!(other instanceof Cell))
+            return false;
+
+        Cell cell = (Cell) other;
+
+        return this.row == cell.row && this.col == cell.col;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.row + this.col;
+    }
+
 }
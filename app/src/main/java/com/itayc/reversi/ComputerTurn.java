@@ -0,0 +1,113 @@
+package com.itayc.reversi;
+
+/**
+ * A class that represents a turn of the computer that is to be calculated on another thread than
+ * the thread of the game (see EngineExecutor): it holds the snapshot of the board of the turn,
+ * that is never modified, so the search never reads the board of the game while the game changes
+ * it (for example when a new game is started while the computer is still calculating). The
+ * search copies the snapshot on the calculating thread (see MinimaxSearch.findMove).
+ *
+ * Only the chosen move is to be passed back to the thread of the game (see
+ * GameController.createComputerTurn): it's kept by the turn once it's found (see isDone). A
+ * turn that is no longer relevant (for example a new game was started) is cancelled, which stops
+ * it's search (see CancellationToken), and the move of a cancelled turn is never to be played.
+ */
+public class ComputerTurn {
+
+    // Attributes
+
+    private final MinimaxSearch search; // the search of the game
+    private final BoardSnapshot board; // the snapshot of the board of the turn
+    private final Piece computer; // the player whose turn it is (the computer)
+    private final Piece rival; // the rival of the computer
+    private int move; // the square index of the chosen move (once it's found)
+    private volatile boolean isDone; // true if the move was found, or false otherwise
+    private final CancellationToken token; // the cancellation token of the search
+
+
+    // Constructor
+
+    /**
+     * Constructor of the class: receives the search of the game, the snapshot of the board of
+     * the turn, the computer and it's rival.
+     *
+     * @param search the search of the game.
+     * @param board the snapshot of the board of the turn.
+     * @param computer the player whose turn it is (the computer).
+     * @param rival the rival of the computer.
+     */
+    public ComputerTurn(MinimaxSearch search, BoardSnapshot board, Piece computer, Piece rival) {
+        this.search = search;
+        this.board = board;
+        this.computer = computer;
+        this.rival = rival;
+        this.token = new CancellationToken();
+    }
+
+
+    // Methods
+
+    /**
+     * A method that calculates and returns the computer's choice of the move of the turn, and
+     * keeps it (may be called on any thread, but only on a single thread at once).
+     *
+     * @return the square index of the computer's choice of the move of the turn, or
+     * MinimaxSearch.NO_MOVE if the turn was cancelled before the search ended.
+     */
+    public int findMove() {
+        if (this.token.isCancelled()) // cancelled before the search started
+            this.move = MinimaxSearch.NO_MOVE;
+        else
+            this.move = this.search.findMove(this.board.getRows(), this.computer, this.rival,
+                    this.token);
+
+        this.isDone = true; // after the move, so a thread that sees it done sees the move
+
+        return this.move;
+    }
+
+    /**
+     * A method that cancels the turn (may be called on any thread): stops it's search if it's
+     * running, or prevents it from starting.
+     */
+    public void cancel() {
+        this.token.cancel();
+    }
+
+    /**
+     * A method that returns true if the turn was cancelled, or false otherwise.
+     *
+     * @return true if the turn was cancelled, or false otherwise.
+     */
+    public boolean isCancelled() {
+        return this.token.isCancelled();
+    }
+
+    /**
+     * A method that returns true if the move of the turn was found, or false otherwise (may be
+     * called on any thread).
+     *
+     * @return true if the move of the turn was found, or false otherwise.
+     */
+    public boolean isDone() {
+        return this.isDone;
+    }
+
+    /**
+     * A getter for the move of the turn (only after it was found, see isDone).
+     *
+     * @return the square index of the computer's choice of the move of the turn.
+     */
+    public int getMove() {
+        return this.move;
+    }
+
+    /**
+     * A getter for the cancellation token of the turn (for example to get it's cancel latency).
+     *
+     * @return the cancellation token of the turn.
+     */
+    public CancellationToken getToken() {
+        return this.token;
+    }
+}
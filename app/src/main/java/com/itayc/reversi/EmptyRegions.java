@@ -0,0 +1,361 @@
+package com.itayc.reversi;
+
+/**
+ * A class that keeps the regions of the empty squares of a board state across turns: groups of
+ * empty squares that are connected through adjacent empty squares (in any of the 8 directions).
+ * Late in the game the empty squares split into several regions, and the parity of a region
+ * (whether the amount of it's squares is odd) tells who is likely to play it's last square, so
+ * the regions can be used to order the moves and to solve the end of the game region by region.
+ *
+ * Every region is kept as a bitboard (see BoardGeometry). Placing a piece changes only the region
+ * of it's square, which may split: the parts of the region are found by spreading (flood fill)
+ * over the bitboard of the region from the empty squares next to the placed piece, stopping as
+ * soon as all of them are reached (then the region didn't split). Emptying a square (unmaking a
+ * move) merges it with the regions next to it. Finding the region of a square (see getRegion)
+ * tests the square in every region, so a turn costs about the size of the changed region plus
+ * the amount of regions, and not the whole board.
+ *
+ * The regions are only worth keeping where they are read, so the game model doesn't keep them:
+ * the minimax keeps them near the end of the game, placing and restoring the square of every
+ * move it makes and unmakes, and searches the moves of the odd regions first (see
+ * MinimaxSearch).
+ *
+ * The order of the regions is not kept: a region may move to another index after any change.
+ */
+public class EmptyRegions {
+
+    // Attributes
+
+    private final BoardGeometry geometry; // the geometry of the board size
+    private final long[][] regions; // the squares of every region (only the first count are used)
+    private final int[] sizes; // the amount of squares of every region
+    private int count; // amount of regions
+    private final long[] remaining; // helper bitboard of the squares of a region to split
+    private final long[] targets; // helper bitboard of the empty squares next to a placed piece
+    private final long[] fill; // helper bitboard of the squares reached by the flood fill
+    private final long[] shifted; // helper bitboard of the flood fill moved in a direction
+
+
+    // Constructor
+
+    /**
+     * Constructor of the class: receives a board size, and allocates the regions of a board of
+     * that size (with no regions until reset).
+     *
+     * @param boardSize the length of the side of the board matrix.
+     */
+    public EmptyRegions(int boardSize) {
+        int blocks = (boardSize + 1) / 2; // blocks of 2x2 squares along a side
+
+        this.geometry = BoardGeometry.getInstance(boardSize);
+
+        // the squares of a 2x2 block are all adjacent, so they can't be of different regions
+        this.regions = new long[blocks * blocks][this.geometry.getWords()];
+        this.sizes = new int[this.regions.length];
+
+        this.remaining = new long[this.geometry.getWords()];
+        this.targets = new long[this.geometry.getWords()];
+        this.fill = new long[this.geometry.getWords()];
+        this.shifted = new long[this.geometry.getWords()];
+    }
+
+
+    // Methods
+
+    /**
+     * A method that receives a board state (of the board size of the regions), and finds the
+     * regions of the empty squares over the whole board.
+     *
+     * @param boardState a board state.
+     */
+    public void reset(BoardState boardState) {
+        int squares = boardState.getBoardSize() * boardState.getBoardSize();
+
+        for (int square = 0; square < squares; square++)
+            if (boardState.isSquareEmpty(square))
+                BoardGeometry.setBit(this.remaining, square);
+            else
+                BoardGeometry.clearBit(this.remaining, square);
+
+        this.count = 0;
+
+        for (int square = BoardGeometry.nextSetBit(this.remaining, 0); square != -1;
+             square = BoardGeometry.nextSetBit(this.remaining, square + 1)) {
+            flood(square, this.remaining, null);
+            addRegion(this.fill);
+            removeAll(this.remaining, this.fill);
+        }
+    }
+
+    /**
+     * A method that receives an empty square that a piece was placed on, and removes it from
+     * it's region, splitting the region if it's no longer connected.
+     *
+     * @param square the index of the square that a piece was placed on.
+     */
+    public void place(int square) {
+        int index = getRegion(square);
+        long[] region = this.regions[index];
+        long[] neighbours = this.geometry.getNeighbours(square);
+
+        BoardGeometry.clearBit(region, square);
+
+        if (--this.sizes[index] == 0) {
+            removeRegion(index);
+            return;
+        }
+
+        // every part of the region (if it split) has an empty square next to the placed piece
+        for (int word = 0; word < this.targets.length; word++)
+            this.targets[word] = neighbours[word] & region[word];
+
+        if (flood(BoardGeometry.nextSetBit(this.targets, 0), region, this.targets))
+            return; // still connected
+
+        System.arraycopy(region, 0, this.remaining, 0, this.remaining.length);
+        removeRegion(index);
+
+        while (true) { // the fill holds a whole part of the region
+            addRegion(this.fill);
+            removeAll(this.remaining, this.fill);
+            removeAll(this.targets, this.fill);
+
+            int next = BoardGeometry.nextSetBit(this.targets, 0);
+
+            if (next == -1)
+                break;
+
+            flood(next, this.remaining, null);
+        }
+    }
+
+    /**
+     * A method that receives a square that was emptied (for example by unmaking a move), and
+     * adds it to the regions, merging it with the regions next to it.
+     *
+     * @param square the index of the square that was emptied.
+     */
+    public void restore(int square) {
+        long[] neighbours = this.geometry.getNeighbours(square);
+
+        for (int word = 0; word < this.fill.length; word++)
+            this.fill[word] = 0;
+
+        BoardGeometry.setBit(this.fill, square);
+
+        for (int index = this.count - 1; index >= 0; index--)
+            if (isAnyCommon(this.regions[index], neighbours)) {
+                for (int word = 0; word < this.fill.length; word++)
+                    this.fill[word] |= this.regions[index][word];
+
+                removeRegion(index);
+            }
+
+        addRegion(this.fill);
+    }
+
+    /**
+     * A getter for the amount of regions.
+     *
+     * @return the amount of regions of the empty squares.
+     */
+    public int getRegionCount() {
+        return this.count;
+    }
+
+    /**
+     * A method that receives a square and returns the index of the region of that square, or -1
+     * if the square is not empty. It tests the square in every region, so it costs about the
+     * amount of regions.
+     *
+     * @param square the index of a square.
+     * @return the index of the region of the received square, or -1 if it's not empty.
+     */
+    public int getRegion(int square) {
+        for (int index = 0; index < this.count; index++)
+            if (BoardGeometry.isSet(this.regions[index], square))
+                return index;
+
+        return -1;
+    }
+
+    /**
+     * A method that receives an index of a region and returns the squares of that region.
+     *
+     * Note that the returned bitboard is NOT a copy, therefore it is not to be modified (and it
+     * may change on the next change of the regions).
+     *
+     * @param index an index of a region.
+     * @return a bitboard of the squares of the region.
+     */
+    public long[] getSquares(int index) {
+        return this.regions[index];
+    }
+
+    /**
+     * A method that receives an index of a region and returns the amount of squares of that
+     * region.
+     *
+     * @param index an index of a region.
+     * @return the amount of squares of the region.
+     */
+    public int getRegionSize(int index) {
+        return this.sizes[index];
+    }
+
+    /**
+     * A method that receives an index of a region and returns true if the amount of it's squares
+     * is odd, or false otherwise.
+     *
+     * @param index an index of a region.
+     * @return true if the region has an odd amount of squares, false otherwise.
+     */
+    public boolean isOdd(int index) {
+        return (this.sizes[index] & 1) != 0;
+    }
+
+    /**
+     * A method that returns the amount of regions with an odd amount of squares.
+     *
+     * @return the amount of regions with an odd amount of squares.
+     */
+    public int getOddCount() {
+        int oddCount = 0;
+
+        for (int index = 0; index < this.count; index++)
+            if (isOdd(index))
+                oddCount++;
+
+        return oddCount;
+    }
+
+    /**
+     * A method that receives a bitboard and fills it with the squares of all the regions with an
+     * odd amount of squares.
+     *
+     * @param oddSquares a bitboard to fill with the squares of the odd regions.
+     */
+    public void copyOddSquares(long[] oddSquares) {
+        for (int word = 0; word < oddSquares.length; word++)
+            oddSquares[word] = 0;
+
+        for (int index = 0; index < this.count; index++)
+            if (isOdd(index))
+                for (int word = 0; word < oddSquares.length; word++)
+                    oddSquares[word] |= this.regions[index][word];
+    }
+
+    /**
+     * A private method that receives a square, a bitboard of squares to spread over and a
+     * bitboard of squares to reach (or null), and fills the fill bitboard with the squares that
+     * are connected to the received square through the squares to spread over. The spreading
+     * stops early if all the squares to reach were reached.
+     *
+     * @param square the index of the square to start from (one of the squares to spread over).
+     * @param within a bitboard of the squares to spread over.
+     * @param toReach a bitboard of squares to reach (not the fill), or null to spread until the
+     *                end.
+     * @return true if the squares to reach were all reached, false if the spreading ended.
+     */
+    private boolean flood(int square, long[] within, long[] toReach) {
+        for (int word = 0; word < this.fill.length; word++)
+            this.fill[word] = 0;
+
+        BoardGeometry.setBit(this.fill, square);
+
+        boolean isGrown = true;
+
+        while (isGrown) {
+            if (toReach != null && isAllIn(toReach, this.fill))
+                return true;
+
+            isGrown = false;
+
+            for (int direction = 0; direction < BoardGeometry.DIRECTIONS; direction++) {
+                this.geometry.shift(this.fill, direction, this.shifted);
+
+                for (int word = 0; word < this.fill.length; word++) {
+                    long grown = this.shifted[word] & within[word] & ~this.fill[word];
+
+                    if (grown != 0) {
+                        this.fill[word] |= grown;
+                        isGrown = true;
+                    }
+                }
+            }
+        }
+
+        return toReach != null && isAllIn(toReach, this.fill);
+    }
+
+    /**
+     * A private method that receives a bitboard of the squares of a region and adds it as a new
+     * region (as a copy).
+     *
+     * @param squares a bitboard of the squares of the region.
+     */
+    private void addRegion(long[] squares) {
+        System.arraycopy(squares, 0, this.regions[this.count], 0, squares.length);
+        this.sizes[this.count] = BoardGeometry.bitCount(squares);
+        this.count++;
+    }
+
+    /**
+     * A private method that receives an index of a region and removes that region, by moving
+     * the last region to it's index.
+     *
+     * @param index an index of a region.
+     */
+    private void removeRegion(int index) {
+        long[] removed = this.regions[index];
+
+        this.count--;
+        this.regions[index] = this.regions[this.count];
+        this.sizes[index] = this.sizes[this.count];
+        this.regions[this.count] = removed; // kept to be reused
+    }
+
+    /**
+     * A private static function that receives two bitboards, and removes the squares of the
+     * second from the first.
+     *
+     * @param bits a bitboard to remove the squares from.
+     * @param toRemove a bitboard of the squares to remove.
+     */
+    private static void removeAll(long[] bits, long[] toRemove) {
+        for (int word = 0; word < bits.length; word++)
+            bits[word] &= ~toRemove[word];
+    }
+
+    /**
+     * A private static function that receives two bitboards and returns true if all the squares
+     * of the first are in the second, or false otherwise.
+     *
+     * @param bits a bitboard.
+     * @param container a bitboard.
+     * @return true if all the squares of the first bitboard are in the second, false otherwise.
+     */
+    private static boolean isAllIn(long[] bits, long[] container) {
+        for (int word = 0; word < bits.length; word++)
+            if ((bits[word] & ~container[word]) != 0)
+                return false;
+
+        return true;
+    }
+
+    /**
+     * A private static function that receives two bitboards and returns true if they have any
+     * square in common, or false otherwise.
+     *
+     * @param first a bitboard.
+     * @param second a bitboard.
+     * @return true if the bitboards have any square in common, false otherwise.
+     */
+    private static boolean isAnyCommon(long[] first, long[] second) {
+        for (int word = 0; word < first.length; word++)
+            if ((first[word] & second[word]) != 0)
+                return true;
+
+        return false;
+    }
+}
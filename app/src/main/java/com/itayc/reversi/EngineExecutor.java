@@ -0,0 +1,67 @@
+package com.itayc.reversi;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A class that runs the calculations of the computer (see ComputerTurn) on a dedicated thread
+ * of the engine, so that they never block the main (UI) thread.
+ *
+ * The calculations run one at a time, in the order they were submitted. The thread is a daemon
+ * thread, so it never keeps the application alive.
+ */
+public class EngineExecutor {
+
+    // Attributes
+
+    private static final String THREAD_NAME = "reversi-engine"; // the name of the engine thread
+
+    private static EngineExecutor engineExecutor; // the singleton instance of the class
+
+    private final ExecutorService executor; // runs the calculations on the engine thread
+
+
+    // Constructor
+
+    /**
+     * A (private) constructor of the class: creates the engine thread's executor.
+     */
+    private EngineExecutor() {
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, THREAD_NAME);
+
+                thread.setDaemon(true);
+
+                return thread;
+            }
+        });
+    }
+
+
+    // Methods
+
+    /**
+     * A getter for singleton instance of the class.
+     *
+     * @return the singleton instance of the class.
+     */
+    public static synchronized EngineExecutor getInstance() {
+        if (engineExecutor == null)
+            engineExecutor = new EngineExecutor();
+
+        return engineExecutor;
+    }
+
+    /**
+     * A method that receives a calculation and runs it on the engine thread (after the
+     * calculations that were submitted before it).
+     *
+     * @param calculation a calculation to run on the engine thread.
+     */
+    public void execute(Runnable calculation) {
+        this.executor.execute(calculation);
+    }
+}
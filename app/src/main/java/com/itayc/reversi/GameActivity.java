@@ -85,12 +85,13 @@ public class GameActivity extends AppCompatActivity implements View.OnClickListe
     // Controller
     private GameController controller; // the game controller
 
-    private HashMap<String, List<Cell>> validLocations; // valid locations for current turn
+    private ValidChoices validLocations; // valid locations for current turn
     private HashMap<Cell, Integer> prevAttainable; // previous attainable pieces for
     // current selection: keys are the locations on board, and values are previous alphas. Used to
     // change alphas back after attainable squares were displayed
 
-    private String computerChoice; // the choice of the computer for the current turn
+    private ComputerTurn computerTurn; // the computer's turn that is being calculated on the
+    // engine thread, or null if there is none
 
     private boolean isInitiating; // true if the game is in initiating stage, or false otherwise
     private boolean isFinished; // true if the game was finished, or false otherwise.
@@ -326,7 +327,7 @@ public class GameActivity extends AppCompatActivity implements View.OnClickListe
                                 1);
                 currentCell.setLayoutParams(cellParams);
 
-                currentBtn.setTag(Cell.toSquareTag(row, col));
+                currentBtn.setTag(Cell.toSquareIndex(row, col, this.boardSize));
                 currentBtn.setSoundEffectsEnabled(false);
 
                 currentBtn.setBackgroundResource(R.drawable.disc_img);
@@ -410,7 +411,7 @@ public class GameActivity extends AppCompatActivity implements View.OnClickListe
         // Disabling old valid choices (new turn -> new valid choices)
         disableOldValidChoices();
 
-        nextTurn(view.getTag().toString());
+        nextTurn((Integer) view.getTag());
 
         playComputerTurn(); // play computer's turn if possible
     }
@@ -421,34 +422,53 @@ public class GameActivity extends AppCompatActivity implements View.OnClickListe
      * was less than the standard computer turn time: if it was, then it plays the decided move
      * after the standard computer turn delay is over.
      *
-     * The calculations are made in a background thread for better user experience.
+     * The calculations are made on the engine thread (see EngineExecutor) for better user
+     * experience: the turn holds the snapshot of the board (see ComputerTurn), and only the
+     * chosen move is passed back to the main thread.
      */
     private final Runnable makeComputerChoice = new Runnable() {
         @Override
         public void run() {
-            long turnStartTime = System.currentTimeMillis();
+            final long turnStartTime = System.currentTimeMillis();
+            final ComputerTurn turn = controller.createComputerTurn();
 
-            computerChoice = controller.computerTurn(validLocations);
+            computerTurn = turn;
 
-            long diff = MIN_PC_TURN_MILLIS - System.currentTimeMillis() + turnStartTime;
+            EngineExecutor.getInstance().execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (turn.findMove() == MinimaxSearch.NO_MOVE) // cancelled, never played
+                        return;
 
-            if (diff > 0) // took less than standard time for the computer to decide it's next move
-                handler.postDelayed(playComputerChoice, diff);
-            else
-                handler.post(playComputerChoice);
+                    // took less than standard time for the computer to decide it's next move
+                    long diff = MIN_PC_TURN_MILLIS - System.currentTimeMillis() + turnStartTime;
+
+                    handler.postDelayed(playComputerChoice, Math.max(diff, 0));
+                }
+            });
         }
     };
 
     /**
      * Initiating the Runnable that holds the code that practically plays the computer's turn
-     * after it has calculated the desired move for the current turn.
+     * after it has calculated the desired move for the current turn - unless the turn was
+     * dropped or cancelled while it was calculating (for example a new game was started, see
+     * removeComputerCallbacks).
      */
     private final Runnable playComputerChoice = new Runnable() {
         @Override
         public void run() {
+            // posted by a turn that was dropped or cancelled (or the turn is still calculating)
+            if (computerTurn == null || !computerTurn.isDone() || computerTurn.isCancelled())
+                return;
+
+            int choice = computerTurn.getMove();
+
+            computerTurn = null;
+
             // to prevent playing computer's turn if game ended while it was calculating
             if (!controller.isGameOver()) {
-                nextTurn(computerChoice); // play the turn
+                nextTurn(choice); // play the turn
 
                 playComputerTurn(); // play again if it's still computer's turn
             }
@@ -468,9 +488,9 @@ public class GameActivity extends AppCompatActivity implements View.OnClickListe
      */
     private void disableOldValidChoices() {
         if (this.validLocations != null) // if it's null it was never enabled...
-            for (String currentSquare : this.validLocations.keySet()) {
-                int row = Cell.getTagRow(currentSquare);
-                int col = Cell.getTagCol(currentSquare);
+            for (int currentSquare : this.validLocations.getSquares()) {
+                int row = Cell.getIndexRow(currentSquare, this.boardSize);
+                int col = Cell.getIndexCol(currentSquare, this.boardSize);
 
                 disableSquare(row, col);
                 this.board[row][col].getBackground().setAlpha(ALPHA_INVISIBLE);
@@ -478,17 +498,17 @@ public class GameActivity extends AppCompatActivity implements View.OnClickListe
     }
 
     /**
-     * A private method that gets as a parameter a String tag that represents the desired square
-     * to play the next turn to, and plays it.
+     * A private method that gets as a parameter the index of the desired square to play the
+     * next turn to, and plays it.
      *
-     * @param tagCurrentMove a String tag that represents the desired square on the board
-     *                       to place the current turn's piece on.
+     * @param currentMove the index of the desired square on the board to place the current
+     *                    turn's piece on.
      */
-    private void nextTurn(String tagCurrentMove) {
+    private void nextTurn(int currentMove) {
         // Playing piece changed sound
         playSound(MusicControl.Sound.PIECE_MOVED);
 
-        List<Cell> turnChange = this.validLocations.get(tagCurrentMove);
+        List<Cell> turnChange = this.validLocations.get(currentMove);
 
         this.controller.nextTurn(turnChange);
 
@@ -536,9 +556,9 @@ public class GameActivity extends AppCompatActivity implements View.OnClickListe
     private void showValidLocations() {
         int currentColor = this.controller.getCurrentPlayer().getColor();
 
-        for (String currentSquare : this.validLocations.keySet()) {
-            int row = Cell.getTagRow(currentSquare);
-            int col = Cell.getTagCol(currentSquare);
+        for (int currentSquare : this.validLocations.getSquares()) {
+            int row = Cell.getIndexRow(currentSquare, this.boardSize);
+            int col = Cell.getIndexCol(currentSquare, this.boardSize);
 
             viewSetEnabled(this.board[row][col], true);
 
@@ -549,9 +569,9 @@ public class GameActivity extends AppCompatActivity implements View.OnClickListe
             currentDrawable.setColor(currentColor);
 
             this.board[row][col].getBackground().setAlpha(ALPHA_HINT);
-            if (settings.getBooleanValue(SettingsManager.Keys.SHOW_HINTS))
-                this.board[row][col].setText(String.valueOf(Objects.requireNonNull(
-                        this.validLocations.get(currentSquare)).size()));
+            if (settings.getBooleanValue(SettingsManager.Keys.SHOW_HINTS)) // only counted
+                this.board[row][col].setText(String.valueOf(
+                        this.validLocations.getObtainableCount(currentSquare)));
         }
     }
 
@@ -575,7 +595,7 @@ public class GameActivity extends AppCompatActivity implements View.OnClickListe
             case MotionEvent.ACTION_DOWN: // touched
                 // for each cell in the current selection
                 for (Cell currentAttainable: Objects.requireNonNull(
-                        this.validLocations.get(view.getTag().toString()))) {
+                        this.validLocations.get((Integer) view.getTag()))) {
 
                     row = currentAttainable.getRow();
                     col = currentAttainable.getCol();
@@ -1106,9 +1126,12 @@ public class GameActivity extends AppCompatActivity implements View.OnClickListe
 
     /**
      * A private method that removes callbacks to computer-turn related Runnable objects
-     * from the handler.
+     * from the handler, and cancels the computer's turn that is being calculated (so that it's
+     * search stops and it's move is never played).
      */
     private void removeComputerCallbacks() {
+        this.controller.cancelComputerTurn();
+        this.computerTurn = null;
         this.handler.removeCallbacks(this.playComputerChoice);
         this.handler.removeCallbacks(this.makeComputerChoice);
     }
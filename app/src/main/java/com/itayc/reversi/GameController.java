@@ -1,9 +1,7 @@
 package com.itayc.reversi;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
 import java.util.Stack;
 
 /**
@@ -111,23 +109,14 @@ public class GameController { // controller of the game
         }
     }
 
-    private static final int MAX_VAL = Integer.MAX_VALUE; // maximum integer value
-    private static final int MIN_VAL = Integer.MIN_VALUE; // minimum integer value
-
-    private static final long MAX_TURN_CALC = 2000; // maximum time for computer to choose a move
-
-    private static final int CORNER_BONUS = 10; // corner bonus
-    private static final int ADJACENT_SIDE = 2; // adjacent side penalty
-    private static final int ADJACENT_DIAGONAL = 3; // adjacent diagonal penalty
-    private final int[][] cornersAdjacent; // kind of dictionary to support iterating over corners
-
     private Difficulty difficulty; // the difficulty of the game
     private boolean isVsComputer; // true if game vs the computer, or false otherwise
     private boolean isHumanTurn; // true if the current turn is human's turn, or false otherwise
 
-    private Piece maximizer; // the maximizer for the minimax calculations
-    private Piece minimizer; // the minimizer for the minimax calculations
-    private String computerMove; // the move of the computer (determined by the minimax algorithm)
+    private MinimaxSearch search; // the search of the computer's moves (allocated per game vs
+    // the computer), or null
+    private ComputerTurn computerTurn; // the last computer's turn that was created (to cancel it
+    // when the game changes), or null
 
 
     // Constructor
@@ -155,10 +144,6 @@ public class GameController { // controller of the game
 
         this.model = new BoardModel(firstPlayer, secondPlayer);
 
-        this.cornersAdjacent = new int[2][2];
-        this.cornersAdjacent[0] = new int[]{0, 1}; // if corner index is 0, then adjacent is plus 1
-        this.cornersAdjacent[1][1] = -1; // if corner index is board edge, then adjacent is minus 1
-
         this.lastStates = new Stack<>();
         this.undoneStates = new Stack<>();
 
@@ -200,7 +185,9 @@ public class GameController { // controller of the game
         this.difficulty = gameDetails.getDifficulty();
         this.isVsComputer = this.difficulty.isVsComputer();
 
-        this.cornersAdjacent[1][0] = gameDetails.getBoardSize() - 1;
+        // allocated once per game, so that the search doesn't allocate for every position
+        this.search = this.isVsComputer ? new MinimaxSearch(this.difficulty.depth,
+                gameDetails.getBoardSize(), this.firstPlayer, this.secondPlayer) : null;
 
         loadGame();
     }
@@ -230,6 +217,8 @@ public class GameController { // controller of the game
      * and calls the proper method in the model class with the current game state.
      */
     public void loadGame() {
+        cancelComputerTurn(); // the position of the turn is no longer the current position
+
         this.currentPlayer = this.currentGameState.getCurrentPlayer();
         this.nextPlayer = this.currentGameState.getNextPlayer();
 
@@ -243,8 +232,10 @@ public class GameController { // controller of the game
      * current game state attribute to the final game state.
      */
     public void forceFinish() {
+        cancelComputerTurn();
+
         this.model.finishGame(this.currentPlayer, this.nextPlayer);
-        this.currentGameState = createCurrentState();
+        this.currentGameState = createCurrentState(this.currentGameState.getSnapshot());
     }
 
     /**
@@ -271,6 +262,10 @@ public class GameController { // controller of the game
 
         // Turns Related
 
+        // the board after the move shares the rows that the move didn't change
+        BoardSnapshot board = this.currentGameState.getSnapshot().with(toChange,
+                this.currentPlayer);
+
         if (this.model.nextTurn(this.currentPlayer, this.nextPlayer, toChange)) { // turn changed
             // Switch Player
             this.currentPlayer = this.nextPlayer;
@@ -281,247 +276,56 @@ public class GameController { // controller of the game
                 this.isHumanTurn = !this.isHumanTurn;
         }
 
-        this.currentGameState = createCurrentState();
+        this.currentGameState = createCurrentState(board);
     }
 
 
     /**
-     * a variable to take the time stamp before a minimax calculation begins so that it will
-     * have a time limit for the calculations.
-     */
-    private long minimaxStart;
-
-    /**
-     * A method that receives as a parameter a dictionary (HashMap) of the available choices to
-     * play and returns the computer's choice of the determined next move (based on the Minimax
-     * algorithm).
-     *
-     * @param availableChoices a dictionary (HashMap) of the available choices to play -
-     *                        the keys are the squares available on the board to move to
-     *                        and the values are the squares that could be obtained if the next
-     *                        move will be to the matching square key.
-     * @return the computer's choice of the next turn's move (based on the Minimax algorithm).
-     */
-    public String computerTurn(HashMap<String, List<Cell>> availableChoices) {
-        this.maximizer = this.currentPlayer;
-        this.minimizer = this.nextPlayer;
-
-        this.minimaxStart = System.currentTimeMillis(); // timestamp before calculations begin
-
-        minimax(difficulty.depth, true, this.model.getBoardState(), availableChoices,
-                MIN_VAL, MAX_VAL, false);
-
-        return this.computerMove;
-    }
-
-    /**
-     * A private method that receives as parameters an object that represents a board state,
-     * a dictionary (HashMap) that represents the available choices and their possible profits
-     * and a boolean that indicates whether the current player is the maximizer or the minimizer,
-     * and returns a static evaluation of the board according to the received parameters.
+     * A method that returns the computer's turn in the current board state, to be calculated
+     * on another thread (see ComputerTurn): it holds the snapshot of the current board (that is
+     * never modified), so that the search never reads the board of the model while it's changed
+     * by the game. It's only to be called in a game vs the computer (otherwise the game has no
+     * search).
      *
-     * It adds a bonus to the final evaluation (int) if the state includes a corner for the
-     * maximizer, (accordingly) a penalty if it includes a corner for the minimizer; a penalty
-     * (lesser) if the state includes a square that is diagonally adjacent to a corner and is
-     * owned by the maximizer (he should strive to avoid it), and (accordingly) a bonus if it's
-     * owned by the minimizer; a (lesser) penalty if the square is either horizontally or
-     * vertically adjacent to a corner and is owned by the maximizer, and (accordingly) a bonus
-     * if it's owned by the minimizer; and finally a bonus for the amount of available moves of
-     * the maximizer, or (accordingly) a penalty for the amount of available moves of the
-     * minimizer (both should strive to have as many available moves as possible) - corners and
-     * adjacent squares are last-stage factors so that another factor was necessary to be
-     * considered beside them while in the early stages of the game.
+     * The turn is cancelled when the game changes (a game is loaded, a move is undone or redone
+     * or the game is finished), or by cancelComputerTurn.
      *
-     * @param boardState an object that represents a board state.
-     * @param availableChoices a dictionary (HashMap) of the available choices to play -
-     *                         the keys are the squares available on the board to move to
-     *                         and the values are the squares that could be obtained if the next
-     *                         move will be to the matching square key.
-     * @param isMaximizer true if that current player is the maximizer or false otherwise.
-     * @return a static evaluation of the board according to the received parameters - the higher
-     * it is, the better it is for the maximizer; and the lower it is, the better it is for
-     * the minimizer (and worse for the maximizer).
+     * @return the computer's turn in the current board state.
      */
-    private int eval(BoardState boardState, HashMap<String, List<Cell>> availableChoices,
-                     boolean isMaximizer) {
-        Piece[][] board = boardState.getBoardRaw(); // for easier and better readable code
-
-        int eval = 0;
-
-        for (int[] cornerRow: this.cornersAdjacent) {
-            int row = cornerRow[0];
-
-            for (int[] cornerCol : this.cornersAdjacent) {
-                int col = cornerCol[0];
-
-
-                Piece currentCorner = board[row][col]; // a corner
-                if (currentCorner != Piece.EMPTY)
-                    eval += CORNER_BONUS * (currentCorner == this.maximizer ? 1 : -1);
-                else { // not empty
-
-                    // horizontal adjacent
-                    eval -= ADJACENT_SIDE * getSquareValue(board[row][col + cornerCol[1]]);
+    public ComputerTurn createComputerTurn() {
+        cancelComputerTurn(); // only a single turn is calculated at once
 
-                    // vertical adjacent
-                    eval -= ADJACENT_SIDE * getSquareValue(board[row + cornerRow[1]][col]);
+        this.computerTurn = new ComputerTurn(this.search, this.currentGameState.getSnapshot(),
+                this.currentPlayer, this.nextPlayer);
 
-                    // diagonal adjacent
-                    eval -= ADJACENT_DIAGONAL
-                            *  getSquareValue(board[row + cornerRow[1]][col + cornerCol[1]]);
-                }
-            }
-        }
-
-        // consider available moves
-        eval += isMaximizer ? availableChoices.size(): availableChoices.size() * -1;
-
-        return eval;
-    }
-
-    /**
-     * A method that receives a square as a parameter and returns the appropriate multiplier
-     * based on the square owner - if it's the maximizer, then 1 (as is); if it's the minimizer,
-     * then by -1 (minus); and if neither own the square (empty), then 0.
-     *
-     * Note that the weights of the bonus/penalty aren't considered here, but rather are
-     * multiplied by the returned value in the evaluation function.
-     *
-     * @param square a square on the board.
-     * @return the appropriate multiplier according to the owner of the received square.
-     */
-    private int getSquareValue(Piece square) {
-        return square == Piece.EMPTY ? 0: square == this.maximizer ? 1: -1;
+        return this.computerTurn;
     }
 
     /**
-     * A method that receives an object that represents a board state and a boolean that indicates
-     * whether the current player is the maximizer as parameters, and returns the available
-     * choices of the next player to play.
-     *
-     * @param boardState an object that represents a board state.
-     * @param isMaximizer true if the current player is the maximizer, or false otherwise.
-     * @return the available choices of the next player to play.
+     * A method that cancels the last computer's turn that was created (see createComputerTurn),
+     * if there is one: it's search is stopped, and it's move is never to be played.
      */
-    private HashMap<String, List<Cell>> otherChoices(BoardState boardState, boolean isMaximizer) {
-        Piece current, other;
-
-        if (isMaximizer) {
-            current = this.maximizer;
-            other = this.minimizer;
-        }
-        else {
-            current = this.minimizer;
-            other = this.maximizer;
+    public void cancelComputerTurn() {
+        if (this.computerTurn != null) {
+            this.computerTurn.cancel();
+            this.computerTurn = null;
         }
-
-        return boardState.validChoices(other, current);
-    }
-
-    /**
-     * A recursive method that receives as parameters the depth of the minimax run (decremented
-     * every deeper layer in the tree until 0); a boolean that indicates whether the current
-     * minimax run is of the maximizer or the minimizer; an object that represents a board state;
-     * a dictionary (HashMap) that holds the available choices of the current minimax player;
-     * the alpha (current highest guaranteed value); the beta (current lowest guaranteed value);
-     * and a boolean that indicates whether the method was called again after a player had no
-     * available choices so that the other player be checked as well to determine if the
-     * game is indeed finished (or a player had a second turn). It considers all the possible
-     * game outcomes of all the possible moves in the given depth or until run-time limit is
-     * reached, and based on the current player determines what move will he make (based on
-     * the assumption that every player strives to play the best possible move available). Then,
-     * it updates the computer move (static) to be the best possible choice of a move of the
-     * maximizer.
-     *
-     * @param depth the depth of the minimax run (decremented every deeper layer in the tree
-     *              until 0, and then stops the minimax from going deeper).
-     * @param isMaximizer true if the current checked player is the maximizer, or false otherwise.
-     * @param boardState an object that represents a board state.
-     * @param availableChoices a dictionary (HashMap) that represents the available choices
-     *                         of the current player (keys) and their outcomes (values).
-     * @param alpha the current highest guaranteed value of the board (best for maximizer).
-     * @param beta the current lowest guaranteed value of the board (best for minimizer).
-     * @param isSecondCheck true if the method was called again after a player had no available
-     *                      choices (to check if the game is really over).
-     * @return the value selected by the current player (highest if maximizer or lowest if
-     * minimizer).
-     */
-    private int minimax(int depth, boolean isMaximizer,
-                        BoardState boardState, HashMap<String, List<Cell>> availableChoices,
-                        int alpha, int beta, boolean isSecondCheck) {
-
-        if (availableChoices.size() == 0) //
-            if (isSecondCheck)
-                return boardState.getPieceAmount(this.maximizer)
-                        - boardState.getPieceAmount(this.minimizer);
-            else
-                return minimax(depth, !isMaximizer, boardState,
-                        otherChoices(boardState, isMaximizer), alpha, beta, true);
-
-        if (depth == 0 || MAX_TURN_CALC - (System.currentTimeMillis() - this.minimaxStart) <= 0)
-            return eval(boardState, availableChoices, isMaximizer);
-
-        int bestValue;
-
-        if (isMaximizer) {
-            bestValue = MIN_VAL;
-
-            for (String choice : availableChoices.keySet()) {
-                BoardState currentState = new BoardState(boardState);
-                currentState.updateBoard(Objects.requireNonNull(availableChoices.get(choice)),
-                        this.maximizer, this.minimizer);
-
-                int currentValue = minimax(depth - 1, false,
-                        currentState, currentState.validChoices(
-                                this.minimizer, this.maximizer), alpha, beta, false);
-
-                if (currentValue > bestValue) {
-                    bestValue = currentValue;
-
-                    if (depth == this.difficulty.depth)
-                        this.computerMove = choice;
-                }
-
-                alpha = Math.max(alpha, bestValue);
-                if (beta <= alpha)
-                    break;
-            }
-        } else {
-            bestValue = MAX_VAL;
-
-            for (String choice : availableChoices.keySet()) {
-                BoardState currentState = new BoardState(boardState);
-                currentState.updateBoard(Objects.requireNonNull(availableChoices.get(choice)),
-                        this.minimizer, this.maximizer);
-
-                int currentValue = minimax(depth - 1, true,
-                        currentState, currentState.validChoices(
-                                this.maximizer, this.minimizer), alpha, beta, false);
-
-                if (currentValue < bestValue) {
-                    bestValue = currentValue;
-
-                    if (depth == this.difficulty.depth) // not really needed - safe check
-                        this.computerMove = choice;
-                }
-
-                beta = Math.min(beta, bestValue);
-                if (beta <= alpha)
-                    break;
-            }
-        }
-
-        return bestValue;
     }
 
 
     /**
-     * A private method that builds and returns an object that represents the current game state.
+     * A private method that receives the snapshot of the current board, and builds and returns
+     * an object that represents the current game state.
+     *
+     * The board isn't copied from the model: the snapshot shares the rows that weren't changed
+     * with the previous game states (see BoardSnapshot), and the empty squares to check are
+     * derived from it only if the game state is saved (see LiveGameDetails.getEmptyToCheck).
      *
+     * @param board the snapshot of the current board.
      * @return an object that represents the current game state.
      */
-    private LiveGameDetails createCurrentState() {
-        return new LiveGameDetails(
+    private LiveGameDetails createCurrentState(BoardSnapshot board) {
+        LiveGameDetails currentState = new LiveGameDetails(
                 getTurnsCount(),
                 this.firstPlayer,
                 this.secondPlayer,
@@ -533,14 +337,19 @@ public class GameController { // controller of the game
                 this.difficulty,
                 getTurnsCount(this.firstPlayer),
                 isGameOver(),
-                getBoardClone(),
-                getEmptyToCheckClone(),
+                null, // the board is shared below
+                null, // derived from the board when needed
                 this.currentPlayer,
                 this.currentGameState.getBoardSize(), // current game board's size shouldn't
                 // change throughout the game
                 this.currentGameState.getStartSize(),
                 isHumanTurn()
         );
+
+        currentState.setSnapshot(board);
+        currentState.setZobristHash(this.model.getZobristHash(this.currentPlayer));
+
+        return currentState;
     }
 
     /**
@@ -607,7 +416,7 @@ public class GameController { // controller of the game
      *
      * @return the valid move choices for the current turn.
      */
-    public HashMap<String, List<Cell>> getValidChoices() {
+    public ValidChoices getValidChoices() {
         return this.model.getValidChoices();
     }
 
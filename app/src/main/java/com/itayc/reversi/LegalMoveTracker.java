@@ -0,0 +1,140 @@
+package com.itayc.reversi;
+
+import java.util.List;
+
+/**
+ * A class that keeps the valid moves of both players of a board state across turns, so that
+ * they don't have to be found over the whole board after every turn.
+ *
+ * Whether an empty square is a valid move depends only on the lines of pieces that start right
+ * next to it, so a changed square (placed or flipped) can change only the first empty square in
+ * each direction from it (the squares between them are all occupied, and the lines of the empty
+ * squares that are further stop before the changed square). Therefore after every turn only
+ * these squares (at most 8 for every changed square) are examined again, and the cost of a turn
+ * depends on the size of the change and not on the size of the board.
+ */
+public class LegalMoveTracker {
+
+    // Attributes
+
+    private final BoardState boardState; // the tracked board state
+    private final BoardGeometry geometry; // the geometry of the board size
+    private final long[] firstMoves; // the valid moves of the first player
+    private final long[] secondMoves; // the valid moves of the second player
+    private final long[] toCheck; // helper bitboard of the squares to examine again
+
+
+    // Constructor
+
+    /**
+     * Constructor of the class: receives a board state to track, and finds the valid moves of
+     * both players on it.
+     *
+     * @param boardState the board state to track.
+     */
+    public LegalMoveTracker(BoardState boardState) {
+        this.boardState = boardState;
+        this.geometry = BoardGeometry.getInstance(boardState.getBoardSize());
+
+        this.firstMoves = new long[this.geometry.getWords()];
+        this.secondMoves = new long[this.geometry.getWords()];
+        this.toCheck = new long[this.geometry.getWords()];
+
+        reset();
+    }
+
+
+    // Methods
+
+    /**
+     * A method that finds the valid moves of both players over the whole board, for when the
+     * board state was changed not through update (for example when it was loaded).
+     */
+    public void reset() {
+        Piece first = this.boardState.getFirstPlayer();
+        Piece second = this.boardState.getSecondPlayer();
+
+        this.boardState.generateMoveMask(first, second, this.firstMoves);
+        this.boardState.generateMoveMask(second, first, this.secondMoves);
+    }
+
+    /**
+     * A method that receives a List of the Cells that were changed on the board state (the
+     * placed piece and the flipped pieces of a move, after the board state was updated) and
+     * updates the valid moves of both players accordingly, by examining again only the squares
+     * that the change may affect.
+     *
+     * @param changedSquares a List of the Cells that were changed on the board state.
+     */
+    public void update(List<Cell> changedSquares) {
+        int boardSize = this.boardState.getBoardSize();
+
+        for (Cell cell: changedSquares) {
+            int square = Cell.toSquareIndex(cell.getRow(), cell.getCol(), boardSize);
+
+            BoardGeometry.clearBit(this.firstMoves, square); // no longer empty
+            BoardGeometry.clearBit(this.secondMoves, square);
+
+            for (int direction = 0; direction < BoardGeometry.DIRECTIONS; direction++)
+                for (int rayed: this.geometry.getRay(square, direction))
+                    if (this.boardState.isSquareEmpty(rayed)) { // the first empty square
+                        BoardGeometry.setBit(this.toCheck, rayed);
+                        break;
+                    }
+        }
+
+        Piece first = this.boardState.getFirstPlayer();
+        Piece second = this.boardState.getSecondPlayer();
+
+        for (int square = BoardGeometry.nextSetBit(this.toCheck, 0); square != -1;
+             square = BoardGeometry.nextSetBit(this.toCheck, square + 1)) {
+            BoardGeometry.clearBit(this.toCheck, square);
+
+            setMove(this.firstMoves, square, this.boardState.isValidMove(square, first, second));
+            setMove(this.secondMoves, square, this.boardState.isValidMove(square, second, first));
+        }
+    }
+
+    /**
+     * A method that gets a player as a parameter and returns the valid moves of that player.
+     *
+     * Note that the returned bitboard is NOT a copy, therefore it is not to be modified (and it
+     * changes on the next update).
+     *
+     * @param player a player of the game.
+     * @return a bitboard of the valid moves of the received player.
+     */
+    public long[] getMoves(Piece player) {
+        return player == this.boardState.getFirstPlayer() ? this.firstMoves : this.secondMoves;
+    }
+
+    /**
+     * A method that gets a player as a parameter and returns true if that player has any valid
+     * move, or false otherwise.
+     *
+     * @param player a player of the game.
+     * @return true if the received player has any valid move, false otherwise.
+     */
+    public boolean hasAnyMove(Piece player) {
+        for (long word: getMoves(player))
+            if (word != 0)
+                return true;
+
+        return false;
+    }
+
+    /**
+     * A private static function that receives a bitboard of moves, a square and whether that
+     * square is a valid move, and sets or clears it in the bitboard accordingly.
+     *
+     * @param moves a bitboard of moves.
+     * @param square the index of a square.
+     * @param isValid true if the square is a valid move, false otherwise.
+     */
+    private static void setMove(long[] moves, int square, boolean isValid) {
+        if (isValid)
+            BoardGeometry.setBit(moves, square);
+        else
+            BoardGeometry.clearBit(moves, square);
+    }
+}
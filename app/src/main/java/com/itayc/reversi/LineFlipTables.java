@@ -0,0 +1,222 @@
+package com.itayc.reversi;
+
+/**
+ * A class that finds the flipped pieces of a move on the standard 8x8 board (see BitBoardState)
+ * by looking them up in precomputed tables, instead of walking the board in every direction.
+ *
+ * Every line through the square of the move (the row, the column, the diagonal and the
+ * anti-diagonal) is reduced to two 8 bits patterns: the pieces of the current player and the
+ * pieces of his rival on that line. The rival's pattern and the position of the move in the line
+ * give the squares that would close a line of the rival's pieces (OUTFLANK), and the ones of
+ * them that hold pieces of the current player give the flipped squares of the line (FLIPPED).
+ * The flipped squares of every line are then put back in the board.
+ *
+ * The tables are small (a few KB), built once and shared by all the board states.
+ */
+public class LineFlipTables {
+
+    // Attributes
+
+    private static final int LINE_SIZE = BitBoardState.BOARD_SIZE; // squares in a full line
+    private static final int INNER_SQUARES = 0x7E; // the squares of a line that can be flipped
+    private static final int LINE_PATTERNS = 1 << LINE_SIZE; // amount of patterns of a line
+
+    private static final long FIRST_COL = 0x0101010101010101L; // mask of column 0
+    private static final long COL_TO_ROW = 0x0102040810204080L; // gathers column 0 to a row
+
+    // the squares that close a line of the rival's pieces [position][rival's inner squares]
+    private static final byte[][] OUTFLANK = new byte[LINE_SIZE][LINE_PATTERNS >>> 2];
+
+    // the flipped squares of a line [position][closing squares of the current player]
+    private static final byte[][] FLIPPED = new byte[LINE_SIZE][LINE_PATTERNS];
+
+    // the bitboard of column 0 that matches every pattern of a column
+    private static final long[] COL_SQUARES = new long[LINE_PATTERNS];
+
+    // masks of the diagonal and the anti-diagonal through every square
+    private static final long[] DIAGONALS = new long[LINE_SIZE * LINE_SIZE];
+    private static final long[] ANTI_DIAGONALS = new long[LINE_SIZE * LINE_SIZE];
+
+    static {
+        for (int position = 0; position < LINE_SIZE; position++) {
+            for (int inner = 0; inner < OUTFLANK[position].length; inner++)
+                OUTFLANK[position][inner] = (byte) outflank(position, inner << 1);
+
+            for (int closing = 0; closing < LINE_PATTERNS; closing++)
+                FLIPPED[position][closing] = (byte) flipped(position, closing);
+        }
+
+        for (int pattern = 0; pattern < LINE_PATTERNS; pattern++)
+            for (int row = 0; row < LINE_SIZE; row++)
+                if ((pattern & (1 << row)) != 0)
+                    COL_SQUARES[pattern] |= 1L << (row * LINE_SIZE);
+
+        for (int square = 0; square < LINE_SIZE * LINE_SIZE; square++) {
+            int row = square / LINE_SIZE;
+            int col = square % LINE_SIZE;
+
+            for (int other = 0; other < LINE_SIZE * LINE_SIZE; other++) {
+                int otherRow = other / LINE_SIZE;
+                int otherCol = other % LINE_SIZE;
+
+                if (otherRow - row == otherCol - col)
+                    DIAGONALS[square] |= 1L << other;
+
+                if (otherRow - row == col - otherCol)
+                    ANTI_DIAGONALS[square] |= 1L << other;
+            }
+        }
+    }
+
+
+    // Constructor
+
+    /**
+     * A private constructor: the class only has static members, so it's not to be instantiated.
+     */
+    private LineFlipTables() {
+    }
+
+
+    // Methods
+
+    /**
+     * A static function that receives as parameters a square to place a piece on, the pieces
+     * of the current player and the pieces of his rival, and returns the rival's pieces that
+     * would be flipped by placing a piece of the current player on that square.
+     *
+     * @param square the index of the square to place a piece on (row * 8 + col).
+     * @param current the pieces of the current player.
+     * @param rival the pieces of the rival of the current player.
+     * @return a bitboard of the rival's pieces that would be flipped.
+     */
+    public static long flips(int square, long current, long rival) {
+        int row = square / LINE_SIZE;
+        int col = square % LINE_SIZE;
+        int rowShift = row * LINE_SIZE;
+
+        // the row: the position in the line is the column
+        long flips = (long) lineFlips(col, (int) (current >>> rowShift) & 0xFF,
+                (int) (rival >>> rowShift) & 0xFF) << rowShift;
+
+        // the column: the position in the line is the row
+        flips |= COL_SQUARES[lineFlips(row, gatherCol(current, col), gatherCol(rival, col))]
+                << col;
+
+        // the diagonals: the position in the line is the column
+        flips |= spreadDiagonal(lineFlips(col, gatherDiagonal(current, DIAGONALS[square]),
+                gatherDiagonal(rival, DIAGONALS[square])), DIAGONALS[square]);
+
+        flips |= spreadDiagonal(lineFlips(col, gatherDiagonal(current, ANTI_DIAGONALS[square]),
+                gatherDiagonal(rival, ANTI_DIAGONALS[square])), ANTI_DIAGONALS[square]);
+
+        return flips;
+    }
+
+    /**
+     * A static function that receives a position in a line, the pattern of the current player's
+     * pieces and the pattern of the rival's pieces on that line, and returns the pattern of the
+     * flipped pieces of that line by placing a piece on that position.
+     *
+     * @param position the position of the move in the line.
+     * @param current the pattern of the current player's pieces on the line.
+     * @param rival the pattern of the rival's pieces on the line.
+     * @return the pattern of the flipped pieces of the line.
+     */
+    private static int lineFlips(int position, int current, int rival) {
+        int closing = OUTFLANK[position][(rival & INNER_SQUARES) >>> 1] & current;
+
+        return FLIPPED[position][closing] & 0xFF;
+    }
+
+    /**
+     * A static function that receives a bitboard and a column, and returns the pattern of that
+     * column (bit i is the square at row i).
+     *
+     * @param bits a bitboard.
+     * @param col a column in the board.
+     * @return the pattern of the received column.
+     */
+    private static int gatherCol(long bits, int col) {
+        return (int) ((((bits >>> col) & FIRST_COL) * COL_TO_ROW) >>> 56);
+    }
+
+    /**
+     * A static function that receives a bitboard and a mask of a diagonal, and returns the
+     * pattern of that diagonal (bit i is the square of the diagonal at column i).
+     *
+     * @param bits a bitboard.
+     * @param diagonal a mask of a diagonal (or an anti-diagonal).
+     * @return the pattern of the received diagonal.
+     */
+    private static int gatherDiagonal(long bits, long diagonal) {
+        // every square of a diagonal is in another column, so the rows can be summed up
+        return (int) (((bits & diagonal) * FIRST_COL) >>> 56);
+    }
+
+    /**
+     * A static function that receives a pattern of a diagonal and the mask of that diagonal,
+     * and returns the bitboard of the squares of the pattern.
+     *
+     * @param pattern a pattern of a diagonal (bit i is the square of the diagonal at column i).
+     * @param diagonal a mask of a diagonal (or an anti-diagonal).
+     * @return the bitboard of the squares of the received pattern.
+     */
+    private static long spreadDiagonal(int pattern, long diagonal) {
+        return (pattern * FIRST_COL) & diagonal; // the pattern copied to every row
+    }
+
+    /**
+     * A static function that receives a position in a line and a pattern of the rival's pieces
+     * on that line, and returns the pattern of the squares that close a line of the rival's
+     * pieces from that position (in both sides).
+     *
+     * @param position the position of the move in the line.
+     * @param rival the pattern of the rival's pieces on the line.
+     * @return the pattern of the squares that close a line of the rival's pieces.
+     */
+    private static int outflank(int position, int rival) {
+        int closing = 0;
+
+        for (int step = -1; step <= 1; step += 2) {
+            int current = position + step;
+
+            while (current >= 0 && current < LINE_SIZE && (rival & (1 << current)) != 0)
+                current += step;
+
+            // at least one rival's piece in line, and the line didn't exceed the board
+            if (current != position + step && current >= 0 && current < LINE_SIZE)
+                closing |= 1 << current;
+        }
+
+        return closing;
+    }
+
+    /**
+     * A static function that receives a position in a line and a pattern of the squares that
+     * close lines of the rival's pieces, and returns the pattern of the squares between the
+     * position and the closing squares (the flipped squares).
+     *
+     * @param position the position of the move in the line.
+     * @param closing the pattern of the squares that close lines of the rival's pieces.
+     * @return the pattern of the flipped squares.
+     */
+    private static int flipped(int position, int closing) {
+        int flipped = 0;
+
+        for (int step = -1; step <= 1; step += 2) {
+            int line = 0;
+            int current = position + step;
+
+            while (current >= 0 && current < LINE_SIZE && (closing & (1 << current)) == 0) {
+                line |= 1 << current;
+                current += step;
+            }
+
+            if (current >= 0 && current < LINE_SIZE) // closed
+                flipped |= line;
+        }
+
+        return flipped;
+    }
+}
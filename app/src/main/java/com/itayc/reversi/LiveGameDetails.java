@@ -11,12 +11,14 @@ public class LiveGameDetails extends GameDetails {
 
     protected final int firstTurnsPlayed; // amount of turns first player played
     protected final boolean isGameOver; // true if the game has ended or false otherwise
-    protected Piece[][] board; // the board matrix of the game
-    protected Collection<String> emptyToCheck; // empty squares to check Collection
+    protected BoardSnapshot board; // the board of the game (shares rows with other states)
+    protected Collection<String> emptyToCheck; // empty squares to check Collection (derived
+    // from the board on the first request if it's null)
     protected final Piece currentPlayer; // current turn's player
     protected final int boardSize; // board size
     protected final int startSize; // starting amount of pieces for each player
     protected final boolean isHumanTurn; // true if it is currently a human's turn, false otherwise
+    protected long zobristHash; // the Zobrist hash of the position (including the current player)
 
 
     // Constructors
@@ -66,7 +68,7 @@ public class LiveGameDetails extends GameDetails {
 
         this.firstTurnsPlayed = firstTurnsPlayed;
         this.isGameOver = isGameOver;
-        this.board = board;
+        this.board = BoardSnapshot.of(board);
         this.emptyToCheck = emptyToCheck;
         this.currentPlayer = currentPlayer;
         this.boardSize = boardSize;
@@ -133,13 +135,16 @@ public class LiveGameDetails extends GameDetails {
                 liveGameDetails.difficulty,
                 liveGameDetails.firstTurnsPlayed,
                 liveGameDetails.isGameOver,
-                liveGameDetails.board,
+                null, // the board is shared below
                 liveGameDetails.emptyToCheck,
                 liveGameDetails.currentPlayer,
                 liveGameDetails.boardSize,
                 liveGameDetails.startSize,
                 liveGameDetails.isHumanTurn
         );
+
+        this.board = liveGameDetails.board;
+        this.zobristHash = liveGameDetails.zobristHash;
     }
 
 
@@ -175,19 +180,35 @@ public class LiveGameDetails extends GameDetails {
     /**
      * A getter for the game board.
      *
-     * @return a reference to the board matrix.
+     * Note that the returned matrix is NOT a copy, and it's rows may be shared with other game
+     * states (see BoardSnapshot), therefore it is not to be modified.
+     *
+     * @return a reference to the board matrix, or null if the board wasn't set yet.
      */
     public Piece[][] getBoard() {
-        return this.board; // do i need clone?
+        return this.board == null ? null : this.board.getRows();
+    }
+
+    /**
+     * A getter for the snapshot of the game board.
+     *
+     * @return the snapshot of the game board, or null if the board wasn't set yet.
+     */
+    public BoardSnapshot getSnapshot() {
+        return this.board;
     }
 
     /**
-     * A getter for the emptyToCheck attribute.
+     * A getter for the emptyToCheck attribute. If it wasn't set, it's derived from the board
+     * (on the first request only), so that game states that are never saved don't build it.
      *
      * @return a reference to the Collection that contains empty squares to check
      * (while calculating a turn's valid moves).
      */
     public Collection<String> getEmptyToCheck() {
+        if (this.emptyToCheck == null && this.board != null)
+            this.emptyToCheck = this.board.getEmptyToCheck();
+
         return this.emptyToCheck;
     }
 
@@ -237,12 +258,30 @@ public class LiveGameDetails extends GameDetails {
         return this.isHumanTurn;
     }
 
+    /**
+     * A getter for the zobristHash attribute.
+     *
+     * @return the Zobrist hash of the position of the game (see BoardState.getZobristHash).
+     */
+    public long getZobristHash() {
+        return this.zobristHash;
+    }
+
     /**
      * A setter for the board attribute.
      *
-     * @param board a reference to the new board to set to.
+     * @param board the new board to set to (copied, so it can still be modified).
      */
     public void setBoard(Piece[][] board) {
+        this.board = BoardSnapshot.of(board);
+    }
+
+    /**
+     * A setter for the board attribute, from a snapshot (that is shared, not copied).
+     *
+     * @param board the snapshot of the new board to set to.
+     */
+    public void setSnapshot(BoardSnapshot board) {
         this.board = board;
     }
 
@@ -254,4 +293,13 @@ public class LiveGameDetails extends GameDetails {
     public void setEmptyToCheck(Collection<String> emptyToCheck) {
         this.emptyToCheck = emptyToCheck;
     }
+
+    /**
+     * A setter for the zobristHash attribute.
+     *
+     * @param zobristHash the Zobrist hash of the position of the game.
+     */
+    public void setZobristHash(long zobristHash) {
+        this.zobristHash = zobristHash;
+    }
 }
@@ -0,0 +1,456 @@
+package com.itayc.reversi;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * The general implementation of the board state: the board is held as a matrix of pieces, so
+ * any board size is supported.
+ */
+public class MatrixBoardState extends BoardState {
+
+    // Attributes
+
+    private Piece[][] board; // The board of the game
+    private final HashMap<Piece, Integer> pieceCount; // Piece counts for both players
+    private final Collection<Integer> emptyToCheck; // indexes of empty squares to check for
+    // next turn (for performance)
+
+
+    // Constructors
+
+    /**
+     * Constructor of the class: receives the board size and the players of the game, and
+     * initiates the relevant data structures.
+     *
+     * @param boardSize the length of the side of the board matrix.
+     * @param firstPlayer the first player of the game.
+     * @param secondPlayer the second player of the game.
+     */
+    public MatrixBoardState(int boardSize, Piece firstPlayer, Piece secondPlayer) {
+        super(boardSize, firstPlayer, secondPlayer);
+
+        this.board = new Piece[boardSize][boardSize];
+        this.pieceCount = new HashMap<>();
+        this.emptyToCheck = new HashSet<>();
+    }
+
+    /**
+     * Copy constructor of the class: receives another MatrixBoardState and copies it's attributes.
+     *
+     * @param boardState the MatrixBoardState object to copy it's attributes.
+     */
+    public MatrixBoardState(MatrixBoardState boardState) {
+        super(boardState);
+
+        this.board = cloneBoard(boardState.board);
+        this.pieceCount = new HashMap<>(boardState.pieceCount);
+        this.emptyToCheck = cloneEmptyToCheck(boardState.emptyToCheck);
+    }
+
+
+    // Methods
+
+    @Override
+    public BoardState copy() {
+        return new MatrixBoardState(this);
+    }
+
+    @Override
+    public void copyFrom(BoardState boardState) {
+        MatrixBoardState other = (MatrixBoardState) boardState;
+
+        for (int row = 0; row < this.boardSize; row++)
+            System.arraycopy(other.board[row], 0, this.board[row], 0, this.boardSize);
+
+        this.pieceCount.clear();
+        this.pieceCount.putAll(other.pieceCount);
+
+        this.emptyToCheck.clear();
+        this.emptyToCheck.addAll(other.emptyToCheck);
+
+        this.hash = other.hash;
+    }
+
+    @Override
+    public void updateBoard(List<Cell> squaresToUpdate, Piece currentPlayer, Piece otherPlayer) {
+        for (Cell toUpdate: squaresToUpdate) {
+            int row = toUpdate.getRow();
+            int col = toUpdate.getCol();
+
+            hashUpdate(Cell.toSquareIndex(row, col, this.boardSize), this.board[row][col],
+                    currentPlayer);
+
+            if (isSquareEmpty(row, col)) {
+                this.emptyToCheck.addAll(surroundingEmptySquares(row, col));
+
+                // no longer empty
+                this.emptyToCheck.remove(Cell.toSquareIndex(row, col, this.boardSize));
+            }
+
+            this.board[row][col] = currentPlayer;
+        }
+
+        // Update pieces counts of the players
+
+        addPieceAmount(currentPlayer, squaresToUpdate.size());
+
+        subtractPieceAmount(otherPlayer, squaresToUpdate.size() - 1);
+        // 1 for empty square - 1 of the new squares is empty and so isn't to be subtracted
+    }
+
+    /**
+     * A method that receives as parameters a row and a column which represent
+     * a square in the board, and returns a Collection that contains the indexes of all the
+     * empty squares that surround it (adjacent to it).
+     *
+     * The reason for that method is to improve performance so that the whole board won't be
+     * checked when there isn't really need for it, but instead only the relevant squares will.
+     *
+     * @param row a row in the board.
+     * @param col a column in the board.
+     * @return a Collection that contains the indexes of all the empty squares surrounding the
+     * received square.
+     */
+    public Collection<Integer> surroundingEmptySquares(int row, int col) {
+        Collection<Integer> adjacentEmpty = new HashSet<>();
+        int currentRow; // the current row index to check
+        int currentCol; // the current column index to check
+
+        for (int i=-1; i <= 1; i++)
+            for (int j=-1; j <= 1; j++) {
+                currentRow = row + i; // right/left/neither
+                currentCol = col + j; // up/down/neither
+
+                if (isInBoard(currentRow, currentCol) // in the board
+                        && !(i == 0 && j == 0) // not same square
+                        && isSquareEmpty(currentRow, currentCol)) // empty square
+
+                    // add it to the set
+                    adjacentEmpty.add(Cell.toSquareIndex(currentRow, currentCol, this.boardSize));
+            }
+
+        return adjacentEmpty;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The pieces are restored from the recorded squares, and the empty squares to check are
+     * restored from the saved words, that hold them as a bitboard (placing a piece may add
+     * several squares to them).
+     */
+    @Override
+    public void makeMove(int square, Piece currentPlayer, Piece otherPlayer, UndoRecord undo) {
+        long[] saved = undo.getSavedWords();
+        MoveList move = undo.getMove();
+        int row = Cell.getIndexRow(square, this.boardSize);
+        int col = Cell.getIndexCol(square, this.boardSize);
+
+        Arrays.fill(saved, 0);
+
+        for (int toCheck : this.emptyToCheck)
+            BoardGeometry.setBit(saved, toCheck);
+
+        undo.record(currentPlayer, otherPlayer);
+        resolveMove(square, currentPlayer, otherPlayer, move);
+
+        this.emptyToCheck.addAll(surroundingEmptySquares(row, col));
+        this.emptyToCheck.remove(square); // no longer empty
+        this.board[row][col] = currentPlayer;
+
+        for (int flip = 0; flip < move.getFlipsEnd(0); flip++)
+            setSquare(move.getFlip(flip), currentPlayer);
+
+        // Update pieces counts of the players
+
+        addPieceAmount(currentPlayer, move.getFlipsCount(0) + 1); // 1 for the placed piece
+        subtractPieceAmount(otherPlayer, move.getFlipsCount(0));
+
+        hashMove(undo);
+    }
+
+    @Override
+    public void unmakeMove(UndoRecord undo) {
+        long[] saved = undo.getSavedWords();
+        Piece otherPlayer = undo.getOtherPlayer();
+
+        setSquare(undo.getSquare(), Piece.EMPTY);
+
+        for (int i = 0; i < undo.getFlipsCount(); i++)
+            setSquare(undo.getFlip(i), otherPlayer);
+
+        this.emptyToCheck.clear();
+
+        for (int square = 0; square < this.boardSize * this.boardSize; square++)
+            if (BoardGeometry.isSet(saved, square))
+                this.emptyToCheck.add(square);
+
+        subtractPieceAmount(undo.getCurrentPlayer(), undo.getFlipsCount() + 1);
+        addPieceAmount(otherPlayer, undo.getFlipsCount());
+
+        this.hash = undo.getSavedHash();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The method iterates over the relevant empty squares to check and adds every one of them
+     * that closes a line of the rival's pieces in any direction.
+     */
+    @Override
+    public void generateMoveMask(Piece currentPlayer, Piece nextPlayer, long[] moves) {
+        Arrays.fill(moves, 0);
+
+        for (int toCheck : this.emptyToCheck)
+            if (isValidMove(toCheck, currentPlayer, nextPlayer))
+                BoardGeometry.setBit(moves, toCheck);
+    }
+
+    @Override
+    public boolean generateMoveMasks(Piece currentPlayer, Piece nextPlayer,
+                                     long[] currentMoves, long[] nextMoves) {
+        boolean isAnyMove = false;
+
+        Arrays.fill(currentMoves, 0);
+        Arrays.fill(nextMoves, 0);
+
+        for (int toCheck : this.emptyToCheck)
+            if (isValidMove(toCheck, currentPlayer, nextPlayer)) {
+                BoardGeometry.setBit(currentMoves, toCheck);
+                isAnyMove = true;
+            } else if (!isAnyMove && isValidMove(toCheck, nextPlayer, currentPlayer))
+                BoardGeometry.setBit(nextMoves, toCheck); // needed only if passing
+
+        return isAnyMove;
+    }
+
+    @Override
+    public int countMoves(Piece player) {
+        Piece rival = getRival(player);
+        int count = 0;
+
+        for (int toCheck : this.emptyToCheck)
+            if (isValidMove(toCheck, player, rival))
+                count++;
+
+        return count;
+    }
+
+    @Override
+    public boolean hasAnyMove(Piece player) {
+        Piece rival = getRival(player);
+
+        for (int toCheck : this.emptyToCheck)
+            if (isValidMove(toCheck, player, rival))
+                return true; // no need to check any further
+
+        return false;
+    }
+
+    @Override
+    public void resolveMove(int square, Piece currentPlayer, Piece nextPlayer, MoveList moves) {
+        for (int direction = 0; direction < BoardGeometry.DIRECTIONS; direction++)
+            goDirection(currentPlayer, nextPlayer, square, direction, moves);
+
+        moves.addMove(square);
+    }
+
+    /**
+     * A private method that receives as parameters the piece of the current player, the piece of
+     * the rival of that player, an index of an empty square, a direction to move to and a buffer
+     * of moves, and adds the squares that the current player can achieve by playing his next turn
+     * moving to that square from the received direction (if there are such squares) to the flips
+     * of the move that is currently being added to the buffer.
+     *
+     * While in still in the board borders, the method moves from the empty square in the
+     * received direction over the rival's pieces. If it gets to a piece of the current player
+     * after at least one rival's piece, that means that there are squares to conquer, and it adds
+     * them. If it gets to an empty square, or exceeds the board borders without finding a
+     * "friendly" piece, that means that the player can't conquer/flip these squares.
+     *
+     * @param currentPlayer the piece of the current player.
+     * @param rival the piece of the rival player.
+     * @param square the index of the empty square to check.
+     * @param direction the direction to check (see BoardGeometry).
+     * @param moves a buffer of moves to add the flipped squares to.
+     */
+    private void goDirection(Piece currentPlayer, Piece rival, int square, int direction,
+                             MoveList moves) {
+        int goRow = BoardGeometry.getRowStep(direction);
+        int goCol = BoardGeometry.getColStep(direction);
+
+        int currentRow = Cell.getIndexRow(square, this.boardSize) + goRow;
+        int currentCol = Cell.getIndexCol(square, this.boardSize) + goCol;
+        int inLine = 0; // the amount of rival's pieces in line
+
+        while (isInBoard(currentRow, currentCol) && this.board[currentRow][currentCol] == rival) {
+            currentRow += goRow;
+            currentCol += goCol;
+            inLine++;
+        }
+
+        // We got to current player's square after rival's squares, occupation is completed
+        if (inLine > 0 && isInBoard(currentRow, currentCol)
+                && this.board[currentRow][currentCol] == currentPlayer)
+            for (int i = 1; i <= inLine; i++)
+                moves.addFlip(square + (goRow * this.boardSize + goCol) * i);
+    }
+
+    @Override
+    public boolean isValidMove(int square, Piece currentPlayer, Piece rival) {
+        if (!isSquareEmpty(square))
+            return false;
+
+        for (int direction = 0; direction < BoardGeometry.DIRECTIONS; direction++) {
+            int goRow = BoardGeometry.getRowStep(direction);
+            int goCol = BoardGeometry.getColStep(direction);
+
+            int currentRow = Cell.getIndexRow(square, this.boardSize) + goRow;
+            int currentCol = Cell.getIndexCol(square, this.boardSize) + goCol;
+            int inLine = 0; // the amount of rival's pieces in line
+
+            while (isInBoard(currentRow, currentCol)
+                    && this.board[currentRow][currentCol] == rival) {
+                currentRow += goRow;
+                currentCol += goCol;
+                inLine++;
+            }
+
+            if (inLine > 0 && isInBoard(currentRow, currentCol)
+                    && this.board[currentRow][currentCol] == currentPlayer)
+                return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public void copyBoard(Piece[][] board) {
+        this.board = cloneBoard(board);
+
+        this.pieceCount.clear();
+        this.pieceCount.put(this.firstPlayer, 0);
+        this.pieceCount.put(this.secondPlayer, 0);
+
+        this.emptyToCheck.clear();
+
+        for (int row = 0; row < this.boardSize; row++)
+            for (int col = 0; col < this.boardSize; col++)
+                if (!isSquareEmpty(row, col)) {
+                    addPieceAmount(this.board[row][col], 1);
+                    this.emptyToCheck.addAll(surroundingEmptySquares(row, col));
+                }
+
+        rehash();
+    }
+
+    /**
+     * A private method that receives an index of a square and a piece, and sets the square to
+     * that piece.
+     *
+     * @param square an index of a square.
+     * @param piece the piece to set the square to.
+     */
+    private void setSquare(int square, Piece piece) {
+        this.board[Cell.getIndexRow(square, this.boardSize)]
+                [Cell.getIndexCol(square, this.boardSize)] = piece;
+    }
+
+    /**
+     * A private method that gets as parameters a piece of a player and an amount to add, and
+     * adds that amount to that player's pieces count.
+     *
+     * @param player a player of which to update the piece amount.
+     * @param amountToAdd the amount of pieces to add to the receives player's pieces count.
+     */
+    @SuppressWarnings("ConstantConditions") // assuming the player is valid
+    private void addPieceAmount(Piece player, int amountToAdd) {
+        this.pieceCount.put(player, this.pieceCount.get(player) + amountToAdd);
+    }
+
+    /**
+     * A private method that gets as parameters a piece of a player and an amount to subtract, and
+     * subtracts that amount from that player's pieces count.
+     *
+     * @param player a player of which to update the piece amount.
+     * @param amountToSubtract the amount of pieces to subtract from the receives player's
+     *                        pieces count.
+     */
+    private void subtractPieceAmount(Piece player, int amountToSubtract) {
+        addPieceAmount(player, amountToSubtract * -1);
+    }
+
+    @Override
+    public void copyDiscs(Piece player, long[] discs) {
+        for (int word = 0; word < discs.length; word++)
+            discs[word] = 0;
+
+        for (int row = 0; row < this.boardSize; row++)
+            for (int col = 0; col < this.boardSize; col++)
+                if (this.board[row][col] == player)
+                    BoardGeometry.setBit(discs, Cell.toSquareIndex(row, col, this.boardSize));
+    }
+
+    @Override
+    @SuppressWarnings("ConstantConditions") // assuming the player is valid
+    public int getPieceAmount(Piece player) {
+        return this.pieceCount.get(player);
+    }
+
+    @Override
+    public Piece[][] getBoardClone() {
+        return cloneBoard(this.board);
+    }
+
+    @Override
+    public Piece getSquare(int row, int col) {
+        return this.board[row][col];
+    }
+
+    @Override
+    public Collection<String> getEmptyToCheckClone() {
+        Collection<String> emptyToCheck = new HashSet<>();
+
+        for (int square: this.emptyToCheck)
+            emptyToCheck.add(Cell.toSquareTag(Cell.getIndexRow(square, this.boardSize),
+                    Cell.getIndexCol(square, this.boardSize)));
+
+        return emptyToCheck;
+    }
+
+    @Override
+    public boolean isSquareEmpty(int row, int col) {
+        return this.board[row][col] == Piece.EMPTY;
+    }
+
+    /**
+     * A static function that gets a game board (two-dimensional array of pieces), and returns a
+     * clone of it (deep copy).
+     *
+     * @param board the two-dimensional array of pieces to clone.
+     * @return a deep copy of the received array.
+     */
+    private static Piece[][] cloneBoard(Piece[][] board) {
+        Piece[][] res = new Piece[board.length][board.length];
+
+        for (int i = 0; i < res.length; i++)
+            System.arraycopy(board[i], 0, res[i], 0, res[i].length);
+
+        return res;
+    }
+
+    /**
+     * A static function that gets an empty to check Collection, and returns a
+     * clone of it (deep copy).
+     *
+     * @param emptyToCheck the empty to check Collection to clone.
+     * @return a deep copy of the received Collection.
+     */
+    private static Collection<Integer> cloneEmptyToCheck(Collection<Integer> emptyToCheck) {
+        return new HashSet<>(emptyToCheck);
+    }
+}
@@ -0,0 +1,540 @@
+package com.itayc.reversi;
+
+import java.util.Arrays;
+
+/**
+ * A class that chooses the move of the computer with the Minimax Algorithm (with alpha-beta
+ * pruning), up to the depth of the difficulty of the game or until the time limit is reached.
+ *
+ * The search deepens iteratively: it searches to depth 1, then 2, 3 and so on up to the depth of
+ * the difficulty, and the chosen move is the move of the deepest search that was completed. A
+ * search that runs out of time is dropped as a whole (instead of evaluating the rest of the tree
+ * at whatever depth it is on), and then the move of the search before it is chosen. Therefore
+ * when the search to the depth of the difficulty ends in time, the chosen move is the same as
+ * of a single search to that depth, since the last search is exactly that search.
+ *
+ * The buffers of every depth are allocated once per game (see the constructor), so the search
+ * doesn't allocate anything. The search works only on it's own copy of the position, in the root
+ * slot of the arena of the searching thread (see findMove and BoardStateArena), so it may run on
+ * a background thread while the board of the game is used by the UI; but an instance is NOT to
+ * be used by two threads at once.
+ *
+ * A search on another thread can be stopped through it's cancellation token (see findMove).
+ * The token and the clock are checked only once every NODES_PER_CHECK nodes, so the checks cost
+ * almost nothing.
+ */
+public class MinimaxSearch {
+
+    // Attributes
+
+    private static final int MAX_VAL = Integer.MAX_VALUE; // maximum integer value
+    private static final int MIN_VAL = Integer.MIN_VALUE; // minimum integer value
+
+    public static final int NO_MOVE = -1; // the result of a search that was cancelled
+
+    private static final long MAX_TURN_CALC = 2000; // maximum time for computer to choose a move
+    private static final long NANOS_PER_MILLI = 1000000L; // nanoseconds in a millisecond
+    private static final int NODES_PER_CHECK = 256; // nodes between checks of the cancellation
+    // token and the clock
+    private static final int PARITY_EMPTIES = 16; // most empty squares to order moves by parity
+
+    private static final int CORNER_BONUS = 10; // corner bonus
+    private static final int ADJACENT_SIDE = 2; // adjacent side penalty
+    private static final int ADJACENT_DIAGONAL = 3; // adjacent diagonal penalty
+    private final int[][] cornersAdjacent; // kind of dictionary to support iterating over corners
+
+    private final int maxDepth; // the depth of the minimax (of the difficulty)
+    private final long maxTurnCalc; // maximum time for the search, in milliseconds
+    private final int boardSize; // the length of the side of the board matrix
+    private final Piece firstPlayer; // the first player of the game
+    private final Piece secondPlayer; // the second player of the game
+
+    private Piece maximizer; // the maximizer for the minimax calculations
+    private Piece minimizer; // the minimizer for the minimax calculations
+    private int computerMove; // the square index of the move of the computer (determined by the
+    // minimax algorithm)
+    private int rootDepth; // the depth of the current iteration of the search
+    private long deadline; // the time stamp (nanoseconds) that the search has to end by
+    private boolean isTimeLimited; // true if the current iteration stops at the deadline, false
+    // otherwise (the first iteration always ends, so that there is a move to choose)
+    private CancellationToken token; // the cancellation token of the current search
+    private int nodesUntilCheck; // nodes left until the next check of the token and the clock
+    private boolean isCancelled; // true if the current search was cancelled, false otherwise
+    private boolean isStopped; // true if the current iteration was stopped (cancelled or out of
+    // time) before it ended, false otherwise
+    private boolean isDepthCut; // true if the current iteration had positions that weren't
+    // searched deeper because of it's depth, false otherwise (then the result is exact)
+    private final long[][] plyMoves; // bitboards of the valid moves for every depth of the minimax
+    private final long[][] plyPassMoves; // bitboards of the valid moves of the other player for
+    // every depth of the minimax, for when the player of the depth has to pass
+    private final UndoRecord[] plyUndo; // records of the moves made at every depth of the minimax
+    private final long[] maximizerStable; // the stable discs of the maximizer when the minimax
+    // started
+    private final long[] minimizerStable; // the stable discs of the minimizer when the minimax
+    // started
+    private final long[] nodeStable; // helper bitboard of the stable discs of a node of the
+    // minimax
+    private final EmptyRegions emptyRegions; // the regions of the empty squares of the minimax
+    // board
+    private boolean isParityOrdering; // true if the minimax keeps the regions, false otherwise
+    private final long[][] plyOddMoves; // bitboards of the valid moves in odd regions for every
+    // depth
+
+
+    // Constructor
+
+    /**
+     * Constructor of the class: receives the depth of the minimax (of the difficulty of the
+     * game), the board size and the players of the game, and allocates the buffers of every
+     * depth.
+     *
+     * @param maxDepth the depth of the minimax.
+     * @param boardSize the length of the side of the board matrix.
+     * @param firstPlayer the first player of the game.
+     * @param secondPlayer the second player of the game.
+     */
+    public MinimaxSearch(int maxDepth, int boardSize, Piece firstPlayer, Piece secondPlayer) {
+        this(maxDepth, boardSize, firstPlayer, secondPlayer, MAX_TURN_CALC);
+    }
+
+    /**
+     * Constructor of the class: receives the depth of the minimax, the board size, the players
+     * of the game and the maximum time for the search (for example a shorter time for testing),
+     * and allocates the buffers of every depth.
+     *
+     * @param maxDepth the depth of the minimax.
+     * @param boardSize the length of the side of the board matrix.
+     * @param firstPlayer the first player of the game.
+     * @param secondPlayer the second player of the game.
+     * @param maxTurnCalc the maximum time for the search, in milliseconds.
+     */
+    MinimaxSearch(int maxDepth, int boardSize, Piece firstPlayer, Piece secondPlayer,
+                  long maxTurnCalc) {
+        int words = BoardGeometry.getWords(boardSize * boardSize);
+
+        this.maxDepth = maxDepth;
+        this.maxTurnCalc = maxTurnCalc;
+        this.boardSize = boardSize;
+        this.firstPlayer = firstPlayer;
+        this.secondPlayer = secondPlayer;
+
+        this.cornersAdjacent = new int[2][2];
+        this.cornersAdjacent[0] = new int[]{0, 1}; // if corner index is 0, then adjacent is plus 1
+        this.cornersAdjacent[1][0] = boardSize - 1;
+        this.cornersAdjacent[1][1] = -1; // if corner index is board edge, then adjacent is minus 1
+
+        this.plyMoves = new long[maxDepth + 1][];
+        this.plyPassMoves = new long[this.plyMoves.length][];
+        this.plyUndo = new UndoRecord[this.plyMoves.length];
+        this.plyOddMoves = new long[this.plyMoves.length][];
+
+        for (int depth = 0; depth < this.plyMoves.length; depth++) {
+            this.plyMoves[depth] = new long[words];
+            this.plyPassMoves[depth] = new long[words];
+            this.plyUndo[depth] = new UndoRecord(boardSize);
+            this.plyOddMoves[depth] = new long[words];
+        }
+
+        this.maximizerStable = new long[words];
+        this.minimizerStable = new long[words];
+        this.nodeStable = new long[words];
+        this.emptyRegions = new EmptyRegions(boardSize);
+    }
+
+
+    // Methods
+
+    /**
+     * A method that receives a board, the players (the computer, whose turn it is, and it's
+     * rival) and a cancellation token, and returns the computer's choice of the next move (based
+     * on the Minimax algorithm) on that board, or NO_MOVE if the token was cancelled before the
+     * search ended (then the cancellation is acknowledged). The board is copied into the root
+     * slot of the arena of the calling thread (see BoardStateArena), and isn't modified; it's
+     * not to be modified by another thread while it's copied (for example the rows of a
+     * BoardSnapshot).
+     *
+     * The search deepens iteratively until the depth of the difficulty, until the time limit
+     * is reached (then the move of the last iteration that ended is chosen), or until an
+     * iteration searched the whole game tree (then deeper iterations would find the same).
+     *
+     * @param board the board to choose the move on.
+     * @param maximizer the player whose turn it is (the computer).
+     * @param minimizer the rival of the player whose turn it is.
+     * @param token the cancellation token of the search.
+     * @return the square index of the computer's choice of the next turn's move, or NO_MOVE if
+     * the search was cancelled.
+     */
+    public int findMove(Piece[][] board, Piece maximizer, Piece minimizer,
+                        CancellationToken token) {
+        this.maximizer = maximizer;
+        this.minimizer = minimizer;
+
+        this.token = token;
+        this.isCancelled = false;
+
+        long start = System.nanoTime(); // timestamp before calculations begin
+
+        this.deadline = start + this.maxTurnCalc * NANOS_PER_MILLI;
+
+        // the minimax makes and unmakes the moves on a single copy of the board, in the root slot
+        // of the arena of the thread (a slot for every depth, allocated once)
+        BoardState boardState = BoardStateArena.getInstance(this.boardSize, this.firstPlayer,
+                this.secondPlayer, this.plyMoves.length).borrow(0, board);
+
+        // the stable discs of the current position stay stable in all the positions after it
+        findStartStable(boardState, this.maximizer, this.maximizerStable);
+        findStartStable(boardState, this.minimizer, this.minimizerStable);
+
+        // near the end of the game the empty squares split into regions (see EmptyRegions)
+        int empties = boardState.getBoardSize() * boardState.getBoardSize()
+                - boardState.getPieceAmount(this.maximizer)
+                - boardState.getPieceAmount(this.minimizer);
+
+        this.isParityOrdering = empties <= PARITY_EMPTIES;
+
+        if (this.isParityOrdering)
+            this.emptyRegions.reset(boardState);
+
+        int bestMove = NO_MOVE; // the move of the deepest iteration that ended
+
+        for (int depth = 1; depth <= this.maxDepth; depth++) {
+            this.rootDepth = depth;
+            this.isTimeLimited = depth > 1;
+            this.nodesUntilCheck = 0; // checked on the root
+            this.isStopped = false;
+            this.isDepthCut = false;
+
+            minimax(depth, true, boardState, MIN_VAL, MAX_VAL, false);
+
+            if (this.isStopped) // the move of the previous iteration is kept
+                break;
+
+            bestMove = this.computerMove;
+
+            if (!this.isDepthCut) // the game tree was searched to the end
+                break;
+        }
+
+        if (this.isCancelled) {
+            token.acknowledge();
+            return NO_MOVE;
+        }
+
+        return bestMove;
+    }
+
+    /**
+     * A private method that returns true if the current iteration of the search was stopped
+     * (the search was cancelled, or the iteration is time limited and the time limit was
+     * reached), or false otherwise. The cancellation token and the clock are checked only once
+     * every NODES_PER_CHECK calls, and once the iteration was stopped, this method returns true
+     * until the iteration ends.
+     *
+     * @return true if the current iteration of the search was stopped, or false otherwise.
+     */
+    private boolean isStopped() {
+        if (!this.isStopped && --this.nodesUntilCheck <= 0) {
+            this.nodesUntilCheck = NODES_PER_CHECK;
+            this.isCancelled = this.token.isCancelled();
+            this.isStopped = this.isCancelled
+                    || this.isTimeLimited && System.nanoTime() - this.deadline >= 0;
+        }
+
+        return this.isStopped;
+    }
+
+    /**
+     * A private static function that receives as parameters a board state, a player and a
+     * bitboard, and fills the bitboard with the stable discs of that player on the board state.
+     *
+     * @param boardState an object that represents a board state.
+     * @param player a player of the game.
+     * @param stable a bitboard to fill with the stable discs of the received player.
+     */
+    private static void findStartStable(BoardState boardState, Piece player, long[] stable) {
+        for (int word = 0; word < stable.length; word++)
+            stable[word] = 0;
+
+        boardState.findStableDiscs(player, stable);
+    }
+
+    /**
+     * A private method that receives as parameters the stable discs of a player when the minimax
+     * started, and returns a helper bitboard that holds a copy of them, to be filled with the
+     * stable discs of that player on a position of the minimax (see BoardState.findStableDiscs).
+     *
+     * @param startStable the stable discs of a player when the minimax started.
+     * @return a helper bitboard that holds a copy of the received stable discs.
+     */
+    private long[] copyStartStable(long[] startStable) {
+        System.arraycopy(startStable, 0, this.nodeStable, 0, startStable.length);
+
+        return this.nodeStable;
+    }
+
+    /**
+     * A private static function that receives as parameters a bitboard of the valid moves in odd
+     * regions, a bitboard of the other valid moves (no square in common) and the last move that
+     * was searched (or -1 before the first), and returns the next move to search, or -1 if all
+     * the moves were searched: the moves in odd regions first, each bitboard in square order.
+     *
+     * @param oddChoices a bitboard of the valid moves in odd regions.
+     * @param evenChoices a bitboard of the other valid moves.
+     * @param choice the last move that was searched, or -1 before the first.
+     * @return the next move to search, or -1 if all the moves were searched.
+     */
+    private static int nextChoice(long[] oddChoices, long[] evenChoices, int choice) {
+        if (choice != -1 && !BoardGeometry.isSet(oddChoices, choice)) // on the other moves
+            return BoardGeometry.nextSetBit(evenChoices, choice + 1);
+
+        int next = BoardGeometry.nextSetBit(oddChoices, choice + 1);
+
+        return next != -1 ? next : BoardGeometry.nextSetBit(evenChoices, 0);
+    }
+
+    /**
+     * A private method that receives as parameters an object that represents a board state,
+     * the amount of the available choices of the current player (without their profits)
+     * and a boolean that indicates whether the current player is the maximizer or the minimizer,
+     * and returns a static evaluation of the board according to the received parameters.
+     *
+     * It adds a bonus to the final evaluation (int) if the state includes a corner for the
+     * maximizer, (accordingly) a penalty if it includes a corner for the minimizer; a penalty
+     * (lesser) if the state includes a square that is diagonally adjacent to a corner and is
+     * owned by the maximizer (he should strive to avoid it), and (accordingly) a bonus if it's
+     * owned by the minimizer; a (lesser) penalty if the square is either horizontally or
+     * vertically adjacent to a corner and is owned by the maximizer, and (accordingly) a bonus
+     * if it's owned by the minimizer; and finally a bonus for the amount of available moves of
+     * the maximizer, or (accordingly) a penalty for the amount of available moves of the
+     * minimizer (both should strive to have as many available moves as possible) - corners and
+     * adjacent squares are last-stage factors so that another factor was necessary to be
+     * considered beside them while in the early stages of the game.
+     *
+     * @param boardState an object that represents a board state.
+     * @param choicesCount the amount of available choices to play (moves).
+     * @param isMaximizer true if that current player is the maximizer or false otherwise.
+     * @return a static evaluation of the board according to the received parameters - the higher
+     * it is, the better it is for the maximizer; and the lower it is, the better it is for
+     * the minimizer (and worse for the maximizer).
+     */
+    private int eval(BoardState boardState, int choicesCount, boolean isMaximizer) {
+        int eval = 0;
+
+        for (int[] cornerRow: this.cornersAdjacent) {
+            int row = cornerRow[0];
+
+            for (int[] cornerCol : this.cornersAdjacent) {
+                int col = cornerCol[0];
+
+
+                Piece currentCorner = boardState.getSquare(row, col); // a corner
+                if (currentCorner != Piece.EMPTY)
+                    eval += CORNER_BONUS * (currentCorner == this.maximizer ? 1 : -1);
+                else { // not empty
+
+                    // horizontal adjacent
+                    eval -= ADJACENT_SIDE
+                            * getSquareValue(boardState.getSquare(row, col + cornerCol[1]));
+
+                    // vertical adjacent
+                    eval -= ADJACENT_SIDE
+                            * getSquareValue(boardState.getSquare(row + cornerRow[1], col));
+
+                    // diagonal adjacent
+                    eval -= ADJACENT_DIAGONAL * getSquareValue(
+                            boardState.getSquare(row + cornerRow[1], col + cornerCol[1]));
+                }
+            }
+        }
+
+        // consider available moves
+        eval += isMaximizer ? choicesCount: choicesCount * -1;
+
+        return eval;
+    }
+
+    /**
+     * A method that receives a square as a parameter and returns the appropriate multiplier
+     * based on the square owner - if it's the maximizer, then 1 (as is); if it's the minimizer,
+     * then by -1 (minus); and if neither own the square (empty), then 0.
+     *
+     * Note that the weights of the bonus/penalty aren't considered here, but rather are
+     * multiplied by the returned value in the evaluation function.
+     *
+     * @param square a square on the board.
+     * @return the appropriate multiplier according to the owner of the received square.
+     */
+    private int getSquareValue(Piece square) {
+        return square == Piece.EMPTY ? 0: square == this.maximizer ? 1: -1;
+    }
+
+    /**
+     * A recursive method that receives as parameters the depth of the minimax run (decremented
+     * every deeper layer in the tree until 0); a boolean that indicates whether the current
+     * minimax run is of the maximizer or the minimizer; an object that represents a board state;
+     * the alpha (current highest guaranteed value); the beta (current lowest guaranteed value);
+     * and a boolean that indicates whether the method was called again after a player had no
+     * available choices so that the other player be checked as well to determine if the
+     * game is indeed finished (or a player had a second turn). It considers all the possible
+     * game outcomes of all the possible moves in the given depth, and based on the current
+     * player determines what move will he make (based on the assumption that every player
+     * strives to play the best possible move available). Then, it updates the computer move to
+     * be the best possible choice of a move of the maximizer. If the iteration is stopped (see
+     * isStopped), every run returns at once (with a meaningless value).
+     *
+     * The available choices of every depth are generated into the bitboard of that depth (see
+     * plyMoves) without their flips, and every choice is made (finding it's flips only then) and
+     * unmade on the received board state (see plyUndo), so nothing is allocated while searching.
+     * If the player has no available choices, the choices of the other player are found in the
+     * same sweep (see plyPassMoves), so passing and the end of the game are found at once.
+     *
+     * When there are no more empty squares than the depth, every leaf below is the end of the
+     * game, so the value is the final piece difference, which is bounded by the stable discs
+     * of both players (see BoardState.getStabilityBound): a position that can't get into the
+     * alpha-beta window is cut off without searching it.
+     *
+     * Near the end of the game, the moves in regions of empty squares with an odd amount of
+     * squares are searched first (see EmptyRegions): the player who moves into an odd region is
+     * likely to also get the last square of it, so these moves tend to be the better ones and
+     * cause earlier cutoffs.
+     *
+     * @param depth the depth of the minimax run (decremented every deeper layer in the tree
+     *              until 0, and then stops the minimax from going deeper).
+     * @param isMaximizer true if the current checked player is the maximizer, or false otherwise.
+     * @param boardState an object that represents a board state (restored before returning).
+     * @param alpha the current highest guaranteed value of the board (best for maximizer).
+     * @param beta the current lowest guaranteed value of the board (best for minimizer).
+     * @param isSecondCheck true if the method was called again after a player had no available
+     *                      choices (and then the other player's choices were already found).
+     * @return the value selected by the current player (highest if maximizer or lowest if
+     * minimizer).
+     */
+    private int minimax(int depth, boolean isMaximizer, BoardState boardState,
+                        int alpha, int beta, boolean isSecondCheck) {
+
+        if (isStopped())
+            return 0; // the value is never used
+
+        Piece current = isMaximizer ? this.maximizer : this.minimizer;
+        boolean isLeaf = depth == 0;
+
+        long[] availableChoices;
+
+        if (isSecondCheck) // found by the player that passed (on the same depth)
+            availableChoices = this.plyPassMoves[depth];
+        else {
+            availableChoices = this.plyMoves[depth];
+
+            if (!boardState.generateMoveMasks(current, boardState.getRival(current),
+                    availableChoices, this.plyPassMoves[depth])) // no available choices
+                if (BoardGeometry.nextSetBit(this.plyPassMoves[depth], 0) == -1) // game over
+                    return boardState.getPieceAmount(this.maximizer)
+                            - boardState.getPieceAmount(this.minimizer);
+                else
+                    return minimax(depth, !isMaximizer, boardState, alpha, beta, true);
+        }
+
+        if (isLeaf) {
+            this.isDepthCut = true; // the position wasn't searched to the end of the game
+            return eval(boardState, BoardGeometry.bitCount(availableChoices), isMaximizer);
+        }
+
+        int empties = boardState.getBoardSize() * boardState.getBoardSize()
+                - boardState.getPieceAmount(this.maximizer)
+                - boardState.getPieceAmount(this.minimizer);
+
+        if (empties <= depth) { // exact - the stable discs bound the final piece difference
+            int upperBound = boardState.getStabilityBound(this.maximizer,
+                    copyStartStable(this.minimizerStable));
+
+            if (upperBound <= alpha)
+                return upperBound;
+
+            int lowerBound = -boardState.getStabilityBound(this.minimizer,
+                    copyStartStable(this.maximizerStable));
+
+            if (lowerBound >= beta)
+                return lowerBound;
+        }
+
+        UndoRecord undo = this.plyUndo[depth];
+        long[] oddChoices = this.plyOddMoves[depth];
+
+        if (this.isParityOrdering) { // splits the choices between the odd and the even regions
+            this.emptyRegions.copyOddSquares(oddChoices);
+
+            for (int word = 0; word < oddChoices.length; word++) {
+                oddChoices[word] &= availableChoices[word];
+                availableChoices[word] &= ~oddChoices[word];
+            }
+        } else
+            Arrays.fill(oddChoices, 0);
+
+        int choice = nextChoice(oddChoices, availableChoices, -1);
+        int bestValue;
+
+        if (isMaximizer) {
+            bestValue = MIN_VAL;
+
+            for (; choice != -1; choice = nextChoice(oddChoices, availableChoices, choice)) {
+                boardState.makeMove(choice, this.maximizer, this.minimizer, undo);
+
+                if (this.isParityOrdering)
+                    this.emptyRegions.place(choice);
+
+                int currentValue = minimax(depth - 1, false, boardState, alpha, beta, false);
+
+                boardState.unmakeMove(undo);
+
+                if (this.isParityOrdering)
+                    this.emptyRegions.restore(choice);
+
+                if (this.isStopped)
+                    return 0; // the value is never used
+
+                if (currentValue > bestValue) {
+                    bestValue = currentValue;
+
+                    if (depth == this.rootDepth)
+                        this.computerMove = choice;
+                }
+
+                alpha = Math.max(alpha, bestValue);
+                if (beta <= alpha)
+                    break;
+            }
+        } else {
+            bestValue = MAX_VAL;
+
+            for (; choice != -1; choice = nextChoice(oddChoices, availableChoices, choice)) {
+                boardState.makeMove(choice, this.minimizer, this.maximizer, undo);
+
+                if (this.isParityOrdering)
+                    this.emptyRegions.place(choice);
+
+                int currentValue = minimax(depth - 1, true, boardState, alpha, beta, false);
+
+                boardState.unmakeMove(undo);
+
+                if (this.isParityOrdering)
+                    this.emptyRegions.restore(choice);
+
+                if (this.isStopped)
+                    return 0; // the value is never used
+
+                if (currentValue < bestValue) {
+                    bestValue = currentValue;
+
+                    if (depth == this.rootDepth) // not really needed - safe check
+                        this.computerMove = choice;
+                }
+
+                beta = Math.min(beta, bestValue);
+                if (beta <= alpha)
+                    break;
+            }
+        }
+
+        return bestValue;
+    }
+}
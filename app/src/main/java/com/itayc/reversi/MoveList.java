@@ -0,0 +1,137 @@
+package com.itayc.reversi;
+
+/**
+ * A class used as a reusable buffer of moves: moves of a player and the squares that every move
+ * flips (see BoardState.resolveMove). The arrays are allocated once (big enough for any position
+ * of the board size), so that filling the buffer over and over (for example for every move that
+ * the Minimax Algorithm makes, see UndoRecord) doesn't allocate anything.
+ *
+ * Moves are written by adding the flipped squares of a move (addFlip) and then the move's square
+ * itself (addMove). All the squares are square indexes (see Cell.toSquareIndex).
+ */
+public class MoveList {
+
+    // Attributes
+
+    // every piece can be flipped by at most one move from each direction
+    private static final int MAX_FLIPS_PER_SQUARE = BoardGeometry.DIRECTIONS;
+
+    private final int[] moves; // the square of each move
+    private final int[] flipsEnds; // the end (exclusive) of the flips of each move in flips
+    private final int[] flips; // the flipped squares of all the moves, move after move
+    private int size; // amount of moves in the list
+    private int flipsSize; // amount of flipped squares in the list
+
+
+    // Constructor
+
+    /**
+     * Constructor of the class: receives a board size and allocates buffers that are big enough
+     * for any position of that board size.
+     *
+     * @param boardSize the length of the side of the board matrix.
+     */
+    public MoveList(int boardSize) {
+        int squares = boardSize * boardSize;
+
+        this.moves = new int[squares];
+        this.flipsEnds = new int[squares];
+        this.flips = new int[squares * MAX_FLIPS_PER_SQUARE];
+    }
+
+
+    // Methods
+
+    /**
+     * A method that clears (discards) all the moves of the list.
+     */
+    public void clear() {
+        this.size = 0;
+        this.flipsSize = 0;
+    }
+
+    /**
+     * A method that receives a square that is flipped by the move that is currently being
+     * added, and adds it to the flips of that move.
+     *
+     * @param square an index of a flipped square.
+     */
+    public void addFlip(int square) {
+        this.flips[this.flipsSize++] = square;
+    }
+
+    /**
+     * A method that receives the square of a move and adds the move to the list. The flips of
+     * the move are all the flips that were added since the previous move was added.
+     *
+     * @param square an index of the square of the move.
+     */
+    public void addMove(int square) {
+        this.moves[this.size] = square;
+        this.flipsEnds[this.size] = this.flipsSize;
+        this.size++;
+    }
+
+    /**
+     * A method that returns the amount of moves in the list.
+     *
+     * @return the amount of moves in the list.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * A method that receives an index of a move in the list and returns it's square.
+     *
+     * @param index an index of a move in the list.
+     * @return the square index of the move.
+     */
+    public int getMove(int index) {
+        return this.moves[index];
+    }
+
+    /**
+     * A method that receives an index of a move in the list and returns the index of it's first
+     * flip (see getFlip).
+     *
+     * @param index an index of a move in the list.
+     * @return the index of the first flip of the move.
+     */
+    public int getFlipsStart(int index) {
+        return index == 0 ? 0 : this.flipsEnds[index - 1];
+    }
+
+    /**
+     * A method that receives an index of a move in the list and returns the index after it's
+     * last flip (see getFlip).
+     *
+     * @param index an index of a move in the list.
+     * @return the index after the last flip of the move.
+     */
+    public int getFlipsEnd(int index) {
+        return this.flipsEnds[index];
+    }
+
+    /**
+     * A method that receives an index of a move in the list and returns the amount of squares
+     * that it flips.
+     *
+     * @param index an index of a move in the list.
+     * @return the amount of squares that the move flips.
+     */
+    public int getFlipsCount(int index) {
+        return getFlipsEnd(index) - getFlipsStart(index);
+    }
+
+    /**
+     * A method that receives an index of a flip (between the start and the end of a move's flips)
+     * and returns the flipped square.
+     *
+     * @param flipIndex an index of a flip.
+     * @return the index of the flipped square.
+     */
+    public int getFlip(int flipIndex) {
+        return this.flips[flipIndex];
+    }
+}
@@ -0,0 +1,380 @@
+package com.itayc.reversi;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * A board state implementation for every valid board size: every player's pieces are held as
+ * a bitboard that is split over several longs (words), so that the square at a row and a
+ * column is the bit at the index row * boardSize + col (up to 7 words on the biggest board).
+ *
+ * Like in BitBoardState, moves are generated by shifting the whole board in a direction. The
+ * shifts carry the bits between the words, and the precomputed edge masks of the board size (see
+ * BoardGeometry) discard the squares that wrapped around the edge of the board (or went outside
+ * of it).
+ */
+public class MultiWordBoardState extends BoardState {
+
+    // Attributes
+
+    private final BoardGeometry geometry; // the geometry of the current board size
+    private final int words; // amount of words of a bitboard
+
+    private final long[] firstDiscs; // the pieces of the first player
+    private final long[] secondDiscs; // the pieces of the second player
+
+    private final long[] valid; // helper bitboard for move generation (the valid moves)
+    private final long[] candidates; // helper bitboard for move generation
+    private final long[] shifted; // helper bitboard for move generation
+
+
+    // Constructors
+
+    /**
+     * Constructor of the class: receives the board size and the players of the game.
+     *
+     * @param boardSize the length of the side of the board matrix.
+     * @param firstPlayer the first player of the game.
+     * @param secondPlayer the second player of the game.
+     */
+    public MultiWordBoardState(int boardSize, Piece firstPlayer, Piece secondPlayer) {
+        super(boardSize, firstPlayer, secondPlayer);
+
+        this.geometry = BoardGeometry.getInstance(boardSize);
+        this.words = this.geometry.getWords();
+
+        this.firstDiscs = new long[this.words];
+        this.secondDiscs = new long[this.words];
+
+        this.valid = new long[this.words];
+        this.candidates = new long[this.words];
+        this.shifted = new long[this.words];
+    }
+
+    /**
+     * Copy constructor of the class: receives another MultiWordBoardState and copies it's
+     * attributes.
+     *
+     * @param boardState the MultiWordBoardState object to copy it's attributes.
+     */
+    public MultiWordBoardState(MultiWordBoardState boardState) {
+        this(boardState.boardSize, boardState.firstPlayer, boardState.secondPlayer);
+
+        copyFrom(boardState);
+    }
+
+
+    // Methods
+
+    @Override
+    public BoardState copy() {
+        return new MultiWordBoardState(this);
+    }
+
+    @Override
+    public void copyFrom(BoardState boardState) {
+        MultiWordBoardState other = (MultiWordBoardState) boardState;
+
+        System.arraycopy(other.firstDiscs, 0, this.firstDiscs, 0, this.words);
+        System.arraycopy(other.secondDiscs, 0, this.secondDiscs, 0, this.words);
+
+        this.hash = other.hash;
+    }
+
+    @Override
+    public void updateBoard(List<Cell> squaresToUpdate, Piece currentPlayer, Piece otherPlayer) {
+        long[] current = getDiscs(currentPlayer);
+        long[] other = getDiscs(otherPlayer);
+
+        for (Cell cell: squaresToUpdate) {
+            int square = Cell.toSquareIndex(cell.getRow(), cell.getCol(), this.boardSize);
+
+            hashUpdate(square, getSquare(cell.getRow(), cell.getCol()), currentPlayer);
+
+            BoardGeometry.setBit(current, square);
+            BoardGeometry.clearBit(other, square);
+        }
+    }
+
+    @Override
+    public void makeMove(int square, Piece currentPlayer, Piece otherPlayer, UndoRecord undo) {
+        long[] saved = undo.getSavedWords();
+        MoveList move = undo.getMove();
+        long[] current = getDiscs(currentPlayer);
+        long[] other = getDiscs(otherPlayer);
+
+        System.arraycopy(this.firstDiscs, 0, saved, 0, this.words);
+        System.arraycopy(this.secondDiscs, 0, saved, this.words, this.words);
+
+        undo.record(currentPlayer, otherPlayer);
+        resolveMove(square, currentPlayer, otherPlayer, move);
+
+        BoardGeometry.setBit(current, square);
+
+        for (int flip = 0; flip < move.getFlipsEnd(0); flip++) {
+            BoardGeometry.setBit(current, move.getFlip(flip));
+            BoardGeometry.clearBit(other, move.getFlip(flip));
+        }
+
+        hashMove(undo);
+    }
+
+    @Override
+    public void unmakeMove(UndoRecord undo) {
+        long[] saved = undo.getSavedWords();
+
+        System.arraycopy(saved, 0, this.firstDiscs, 0, this.words);
+        System.arraycopy(saved, this.words, this.secondDiscs, 0, this.words);
+        this.hash = undo.getSavedHash();
+    }
+
+    @Override
+    public void generateMoveMask(Piece currentPlayer, Piece nextPlayer, long[] moves) {
+        validMoves(getDiscs(currentPlayer), getDiscs(nextPlayer), moves, false);
+    }
+
+    @Override
+    public boolean generateMoveMasks(Piece currentPlayer, Piece nextPlayer,
+                                     long[] currentMoves, long[] nextMoves) {
+        long[] current = getDiscs(currentPlayer);
+        long[] rival = getDiscs(nextPlayer);
+
+        if (validMoves(current, rival, currentMoves, false))
+            return true;
+
+        validMoves(rival, current, nextMoves, false); // the current player passes
+
+        return false;
+    }
+
+    @Override
+    public int countMoves(Piece player) {
+        validMoves(getDiscs(player), getDiscs(getRival(player)), this.valid, false);
+
+        return BoardGeometry.bitCount(this.valid);
+    }
+
+    @Override
+    public boolean hasAnyMove(Piece player) {
+        return validMoves(getDiscs(player), getDiscs(getRival(player)), this.valid, true);
+    }
+
+    @Override
+    public boolean isValidMove(int square, Piece currentPlayer, Piece nextPlayer) {
+        long[] current = getDiscs(currentPlayer);
+        long[] rival = getDiscs(nextPlayer);
+
+        if (BoardGeometry.isSet(current, square) || BoardGeometry.isSet(rival, square))
+            return false;
+
+        for (int direction = 0; direction < BoardGeometry.DIRECTIONS; direction++) {
+            int[] ray = this.geometry.getRay(square, direction);
+            int inLine = 0; // the amount of rival's pieces in line
+
+            while (inLine < ray.length && BoardGeometry.isSet(rival, ray[inLine]))
+                inLine++;
+
+            if (inLine > 0 && inLine < ray.length && BoardGeometry.isSet(current, ray[inLine]))
+                return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public void resolveMove(int square, Piece currentPlayer, Piece nextPlayer, MoveList moves) {
+        addFlips(square, getDiscs(currentPlayer), getDiscs(nextPlayer), moves);
+        moves.addMove(square);
+    }
+
+    /**
+     * A private method that receives as parameters the pieces of the current player, the pieces
+     * of his rival and a bitboard to fill, and fills it with all the squares that the current
+     * player can place his piece on.
+     *
+     * For every direction, the pieces of the current player are shifted over the rival's
+     * pieces as long as there are new rival's pieces to shift over, and every empty square
+     * that is reached right after them is a valid move. The fill stops as soon as a direction
+     * has no new pieces, which on boards of up to 7 words is cheaper than a parallel-prefix
+     * (Kogge-Stone) flood that always pays for the longest possible line.
+     *
+     * @param current the pieces of the current player.
+     * @param rival the pieces of the rival of the current player.
+     * @param moves a bitboard to fill with the valid moves of the current player.
+     * @param isAnyEnough true if the method can stop as soon as a valid move was found (and then
+     *                    the bitboard may hold only some of the valid moves), false otherwise.
+     * @return true if the current player has any valid move, false otherwise.
+     */
+    private boolean validMoves(long[] current, long[] rival, long[] moves, boolean isAnyEnough) {
+        int words = this.words;
+        boolean isAnyMove = false;
+
+        for (int word = 0; word < words; word++)
+            moves[word] = 0;
+
+        for (int direction = 0; direction < BoardGeometry.DIRECTIONS; direction++) {
+            this.geometry.shift(current, direction, this.candidates);
+            boolean isAnyCandidate = false;
+
+            for (int word = 0; word < words; word++) {
+                this.candidates[word] &= rival[word];
+                isAnyCandidate |= this.candidates[word] != 0;
+            }
+
+            boolean isGrown = isAnyCandidate;
+
+            while (isGrown) { // rest of the rival's pieces in line
+                this.geometry.shift(this.candidates, direction, this.shifted);
+                isGrown = false;
+
+                for (int word = 0; word < words; word++) {
+                    long grown = this.shifted[word] & rival[word] & ~this.candidates[word];
+
+                    this.candidates[word] |= grown;
+                    isGrown |= grown != 0;
+                }
+            }
+
+            if (isAnyCandidate) {
+                this.geometry.shift(this.candidates, direction, this.shifted);
+
+                for (int word = 0; word < words; word++) {
+                    moves[word] |= this.shifted[word] & ~(current[word] | rival[word]);
+                    isAnyMove |= moves[word] != 0;
+                }
+
+                if (isAnyMove && isAnyEnough)
+                    return true;
+            }
+        }
+
+        return isAnyMove;
+    }
+
+    /**
+     * A private method that receives as parameters a square to place a piece on, the pieces of
+     * the current player, the pieces of his rival and a buffer of moves, and adds the rival's
+     * pieces that would be flipped by placing a piece of the current player on that square to
+     * the flips of the move that is currently being added to the buffer.
+     *
+     * @param square the index of the square to place a piece on.
+     * @param current the pieces of the current player.
+     * @param rival the pieces of the rival of the current player.
+     * @param moves a buffer of moves to add the flipped squares to.
+     */
+    private void addFlips(int square, long[] current, long[] rival, MoveList moves) {
+        for (int direction = 0; direction < BoardGeometry.DIRECTIONS; direction++) {
+            int[] ray = this.geometry.getRay(square, direction);
+            int inLine = 0; // the amount of rival's pieces in line
+
+            while (inLine < ray.length && BoardGeometry.isSet(rival, ray[inLine]))
+                inLine++;
+
+            // the line is closed by a piece of the current player
+            if (inLine > 0 && inLine < ray.length && BoardGeometry.isSet(current, ray[inLine]))
+                for (int i = 0; i < inLine; i++)
+                    moves.addFlip(ray[i]);
+        }
+    }
+
+    /**
+     * A private method that receives as parameters a bitboard and a location of a square, and
+     * returns true if that square is set in the bitboard, or false otherwise.
+     *
+     * @param bits a bitboard.
+     * @param row a row in the board.
+     * @param col a column in the board.
+     * @return true if the square at the received indexes is set in the bitboard, false otherwise.
+     */
+    private boolean isSet(long[] bits, int row, int col) {
+        return BoardGeometry.isSet(bits, Cell.toSquareIndex(row, col, this.boardSize));
+    }
+
+    /**
+     * A method that receives a player as a parameter and returns his pieces bitboard.
+     *
+     * @param player a player of the game.
+     * @return the pieces bitboard of the received player.
+     */
+    private long[] getDiscs(Piece player) {
+        return player == this.firstPlayer ? this.firstDiscs : this.secondDiscs;
+    }
+
+    @Override
+    public void copyBoard(Piece[][] board) {
+        for (int word = 0; word < this.words; word++) {
+            this.firstDiscs[word] = 0;
+            this.secondDiscs[word] = 0;
+        }
+
+        for (int row = 0; row < this.boardSize; row++)
+            for (int col = 0; col < this.boardSize; col++) {
+                int square = Cell.toSquareIndex(row, col, this.boardSize);
+
+                if (board[row][col] == this.firstPlayer)
+                    BoardGeometry.setBit(this.firstDiscs, square);
+                else if (board[row][col] == this.secondPlayer)
+                    BoardGeometry.setBit(this.secondDiscs, square);
+            }
+
+        rehash();
+    }
+
+    @Override
+    public Piece getSquare(int row, int col) {
+        if (isSet(this.firstDiscs, row, col))
+            return this.firstPlayer;
+
+        return isSet(this.secondDiscs, row, col) ? this.secondPlayer : Piece.EMPTY;
+    }
+
+    @Override
+    public void copyDiscs(Piece player, long[] discs) {
+        System.arraycopy(getDiscs(player), 0, discs, 0, this.words);
+    }
+
+    @Override
+    public int getPieceAmount(Piece player) {
+        long[] discs = getDiscs(player);
+        int amount = 0;
+
+        for (long word: discs)
+            amount += Long.bitCount(word);
+
+        return amount;
+    }
+
+    @Override
+    public Collection<String> getEmptyToCheckClone() {
+        int words = this.words;
+        long[] occupied = new long[words];
+        long[] adjacent = new long[words];
+
+        for (int word = 0; word < words; word++)
+            occupied[word] = this.firstDiscs[word] | this.secondDiscs[word];
+
+        for (int direction = 0; direction < BoardGeometry.DIRECTIONS; direction++) {
+            this.geometry.shift(occupied, direction, this.shifted);
+
+            for (int word = 0; word < words; word++)
+                adjacent[word] |= this.shifted[word];
+        }
+
+        Collection<String> emptyToCheck = new HashSet<>();
+
+        for (int word = 0; word < words; word++) {
+            long empties = adjacent[word] & ~occupied[word];
+
+            while (empties != 0) {
+                int square = word * Long.SIZE + Long.numberOfTrailingZeros(empties);
+                empties &= empties - 1;
+
+                emptyToCheck.add(Cell.toSquareTag(square / this.boardSize,
+                        square % this.boardSize));
+            }
+        }
+
+        return emptyToCheck;
+    }
+}
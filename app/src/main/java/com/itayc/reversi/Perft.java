@@ -0,0 +1,229 @@
+package com.itayc.reversi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A class that counts the positions that are reached after a given amount of turns from a
+ * position (perft - performance test), by playing every sequence of valid moves on a board state.
+ *
+ * The counts are the same for every board state implementation that generates and plays the
+ * moves correctly, so comparing them across the implementations (see verify) proves that they
+ * generate identical game trees, and timing them shows the speed of every implementation.
+ * MatrixBoardState (that isn't used by the game) is the reference that the bitboard
+ * implementations of the game are compared to.
+ *
+ * The turns are played like BoardModel.nextTurn plays them: after a move the rival plays if he
+ * has any valid move; otherwise the same player plays again if he has any valid move (a pass is
+ * not counted as a turn); otherwise the game is over, and the position is counted as reached
+ * (before the amount of turns was played).
+ */
+public class Perft {
+
+    // Attributes
+
+    private static final long NANOS_PER_SECOND = 1000000000L; // nanoseconds in a second
+
+    private final BoardState boardState; // the board state that the moves are played on
+    private final long[][] plyMoves; // bitboards of the valid moves for every depth
+    private final long[][] plyPassMoves; // bitboards of the valid moves of the other player for
+    // every depth, for when the player of the depth has to pass
+    private final UndoRecord[] plyUndo; // records of the moves made at every depth
+
+
+    // Constructor
+
+    /**
+     * Constructor of the class: receives a board state to play the moves on and the maximum
+     * depth (amount of turns) to count, and allocates the buffers of every depth, so that
+     * counting doesn't allocate anything.
+     *
+     * @param boardState the board state to play the moves on (restored after every count).
+     * @param maxDepth the maximum amount of turns to count.
+     */
+    public Perft(BoardState boardState, int maxDepth) {
+        int words = BoardGeometry.getWords(boardState.getBoardSize() * boardState.getBoardSize());
+
+        this.boardState = boardState;
+        this.plyMoves = new long[maxDepth + 1][words];
+        this.plyPassMoves = new long[maxDepth + 1][words];
+        this.plyUndo = new UndoRecord[maxDepth + 1];
+
+        for (int depth = 0; depth <= maxDepth; depth++)
+            this.plyUndo[depth] = new UndoRecord(boardState.getBoardSize());
+    }
+
+
+    // Methods
+
+    /**
+     * A method that receives the player whose turn it is and a depth (up to the maximum depth),
+     * and returns the amount of positions that are reached after that amount of turns (or
+     * earlier, when the game is over).
+     *
+     * @param currentPlayer the player whose turn it is.
+     * @param depth an amount of turns to play.
+     * @return the amount of positions reached after the received amount of turns.
+     */
+    public long count(Piece currentPlayer, int depth) {
+        if (depth == 0)
+            return 1;
+
+        Piece rival = this.boardState.getRival(currentPlayer);
+        long[] moves = this.plyMoves[depth];
+        long[] passMoves = this.plyPassMoves[depth];
+
+        if (this.boardState.generateMoveMasks(currentPlayer, rival, moves, passMoves))
+            return count(currentPlayer, moves, depth);
+
+        if (BoardGeometry.nextSetBit(passMoves, 0) != -1) // the player has to pass
+            return count(rival, passMoves, depth);
+
+        return 1; // the game is over
+    }
+
+    /**
+     * A private recursive method that receives the player whose turn it is, his valid moves (at
+     * least one) and a depth, and returns the amount of positions that are reached after that
+     * amount of turns. The positions after the last turn are counted without playing it.
+     *
+     * @param currentPlayer the player whose turn it is.
+     * @param moves a bitboard of the valid moves of the player (of a deeper depth).
+     * @param depth an amount of turns to play (at least 1).
+     * @return the amount of positions reached after the received amount of turns.
+     */
+    private long count(Piece currentPlayer, long[] moves, int depth) {
+        if (depth == 1) // every move reaches a single position
+            return BoardGeometry.bitCount(moves);
+
+        Piece rival = this.boardState.getRival(currentPlayer);
+        long[] nextMoves = this.plyMoves[depth - 1];
+        long[] passMoves = this.plyPassMoves[depth - 1];
+        UndoRecord undo = this.plyUndo[depth];
+        long positions = 0;
+
+        for (int move = BoardGeometry.nextSetBit(moves, 0); move != -1;
+             move = BoardGeometry.nextSetBit(moves, move + 1)) {
+            this.boardState.makeMove(move, currentPlayer, rival, undo);
+
+            if (this.boardState.generateMoveMasks(rival, currentPlayer, nextMoves, passMoves))
+                positions += count(rival, nextMoves, depth - 1);
+            else if (BoardGeometry.nextSetBit(passMoves, 0) != -1) // the rival has to pass
+                positions += count(currentPlayer, passMoves, depth - 1);
+            else // the game is over
+                positions++;
+
+            this.boardState.unmakeMove(undo);
+        }
+
+        return positions;
+    }
+
+    /**
+     * A static function that receives a board size and the players of the game, and returns a
+     * new (empty) board state of every implementation that supports that board size.
+     *
+     * @param boardSize the length of the side of the board matrix.
+     * @param firstPlayer the first player of the game.
+     * @param secondPlayer the second player of the game.
+     * @return a new board state of every implementation that supports the received board size.
+     */
+    public static List<BoardState> createImplementations(int boardSize, Piece firstPlayer,
+                                                         Piece secondPlayer) {
+        List<BoardState> implementations = new ArrayList<>();
+
+        implementations.add(new MatrixBoardState(boardSize, firstPlayer, secondPlayer));
+        implementations.add(new MultiWordBoardState(boardSize, firstPlayer, secondPlayer));
+
+        if (boardSize == BitBoardState.BOARD_SIZE)
+            implementations.add(new BitBoardState(firstPlayer, secondPlayer));
+
+        return implementations;
+    }
+
+    /**
+     * A static function that receives a position (of a live game) and a depth, counts the
+     * positions reached after that amount of turns on every board state implementation, and
+     * returns a report line for every implementation: the count, the time and the positions per
+     * second. The position may be a new game (without a board), and then it's start position is
+     * counted.
+     *
+     * @param position a position of a live game.
+     * @param depth an amount of turns to play.
+     * @return a report line for every board state implementation.
+     * @throws IllegalStateException if the implementations reach different counts.
+     */
+    public static List<String> verify(LiveGameDetails position, int depth) {
+        Piece[][] board = getBoard(position);
+        List<String> report = new ArrayList<>();
+        long expected = -1; // the count of the first implementation
+
+        for (BoardState boardState: createImplementations(position.getBoardSize(),
+                position.getFirstPlayer(), position.getSecondPlayer())) {
+            boardState.copyBoard(board);
+
+            long start = System.nanoTime();
+            long positions = new Perft(boardState, depth).count(position.getCurrentPlayer(),
+                    depth);
+            long nanos = Math.max(System.nanoTime() - start, 1);
+
+            String name = boardState.getClass().getSimpleName();
+
+            if (expected == -1)
+                expected = positions;
+            else if (positions != expected)
+                throw new IllegalStateException(name + " counted " + positions + " positions at "
+                        + "depth " + depth + " instead of " + expected);
+
+            report.add(position.getBoardSize() + "x" + position.getBoardSize() + " start "
+                    + position.getStartSize() + " depth " + depth + " " + name + ": "
+                    + positions + " positions, " + nanos / 1000000 + " ms, "
+                    + positions * NANOS_PER_SECOND / nanos + " positions/s");
+        }
+
+        return report;
+    }
+
+    /**
+     * A static function that receives the players of the game and a depth, and verifies (see
+     * verify) the start positions of every valid board size and start size (see
+     * BoardModel.getMatchingStartSizes), where the first player starts.
+     *
+     * @param firstPlayer the first player of the game.
+     * @param secondPlayer the second player of the game.
+     * @param depth an amount of turns to play.
+     * @return a report line for every start position and board state implementation.
+     * @throws IllegalStateException if the implementations reach different counts.
+     */
+    public static List<String> verifyStartPositions(Piece firstPlayer, Piece secondPlayer,
+                                                    int depth) {
+        List<String> report = new ArrayList<>();
+
+        for (int boardSize = BoardModel.MIN_BOARD_SIZE; boardSize <= BoardModel.MAX_BOARD_SIZE;
+             boardSize += 2)
+            for (int startSize: BoardModel.getMatchingStartSizes(boardSize))
+                report.addAll(verify(new LiveGameDetails(firstPlayer, secondPlayer, boardSize,
+                        startSize, firstPlayer, GameController.Difficulty.LOCAL, true), depth));
+
+        return report;
+    }
+
+    /**
+     * A private static function that receives a position (of a live game) and returns it's
+     * board, or the start board of the game if it's a new game (without a board).
+     *
+     * @param position a position of a live game.
+     * @return the board of the received position.
+     */
+    private static Piece[][] getBoard(LiveGameDetails position) {
+        if (position.getBoard() != null)
+            return position.getBoard();
+
+        // the model sets the start board on the game that it loads, so it loads a copy
+        LiveGameDetails start = new LiveGameDetails(position);
+
+        new BoardModel(position.getFirstPlayer(), position.getSecondPlayer()).loadGame(start);
+
+        return start.getBoard();
+    }
+}
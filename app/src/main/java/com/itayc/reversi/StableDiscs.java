@@ -0,0 +1,196 @@
+package com.itayc.reversi;
+
+/**
+ * A class that finds the stable discs of a player on a board state: pieces that can never be
+ * flipped again, whatever is played until the end of the game.
+ *
+ * A piece can be flipped only along one of the 4 lines through it (horizontal, vertical and the
+ * two diagonals), and only if there are squares on both of it's sides on that line. Therefore a
+ * piece is stable if on each of the 4 lines it's on the edge of the board, or the whole line is
+ * already full (nothing can be placed on it anymore), or it's next to a stable piece of the same
+ * player. The stable discs grow from the corners along the edges and the full lines, so they are
+ * found by spreading from the stable discs that are already known, until nothing is added.
+ *
+ * A stable disc stays stable (and of the same player) on every position that follows, so the
+ * stable discs of a position are a valid start for all the positions after it: they are found
+ * incrementally, spreading only from where the previous search stopped. The found discs are a
+ * lower bound (for example a piece that is protected only by stable pieces of the rival is
+ * missed), which keeps every use of them safe.
+ *
+ * The bitboards are allocated once, so finding the stable discs doesn't allocate anything and is
+ * cheap enough for the leaves of the Minimax Algorithm. An instance is NOT to be shared between
+ * threads (see BoardState.findStableDiscs).
+ */
+public class StableDiscs {
+
+    // Attributes
+
+    private static final int[] AXES = {0, 2, 4, 5}; // a direction of every line through a square
+
+    private final BoardGeometry geometry; // the geometry of the board size
+    private final long[] corners; // mask of the corners of the board
+    private final long[] own; // the pieces of the player
+    private final long[] occupied; // the squares that aren't empty
+    private final long[][] protectedSquares; // the squares that can't be flipped on each line
+    private final long[] candidates; // the pieces that may become stable
+    private final long[] shifted; // helper bitboard of the stable discs moved in a direction
+    private final long[] shiftedBack; // helper bitboard of the stable discs moved back
+
+
+    // Constructor
+
+    /**
+     * Constructor of the class: receives a board size and allocates the bitboards of that size.
+     *
+     * @param boardSize the length of the side of the board matrix.
+     */
+    public StableDiscs(int boardSize) {
+        this.geometry = BoardGeometry.getInstance(boardSize);
+
+        int words = this.geometry.getWords();
+        int last = boardSize - 1;
+
+        this.corners = new long[words];
+        this.own = new long[words];
+        this.occupied = new long[words];
+        this.protectedSquares = new long[AXES.length][words];
+        this.candidates = new long[words];
+        this.shifted = new long[words];
+        this.shiftedBack = new long[words];
+
+        BoardGeometry.setBit(this.corners, Cell.toSquareIndex(0, 0, boardSize));
+        BoardGeometry.setBit(this.corners, Cell.toSquareIndex(0, last, boardSize));
+        BoardGeometry.setBit(this.corners, Cell.toSquareIndex(last, 0, boardSize));
+        BoardGeometry.setBit(this.corners, Cell.toSquareIndex(last, last, boardSize));
+    }
+
+
+    // Methods
+
+    /**
+     * A method that receives a board state, a player and a bitboard of known stable discs of
+     * that player on the board state (may be empty), and adds to the bitboard the other stable
+     * discs of the player that can be found.
+     *
+     * A player that has no known stable discs and no corner is taken to have no stable discs
+     * (without searching), since the stable discs usually grow from the corners.
+     *
+     * @param boardState a board state of the board size.
+     * @param player a player of the game.
+     * @param stable a bitboard of known stable discs of the player (may be empty), that is
+     *               filled with all the stable discs that were found.
+     * @return the amount of stable discs of the received player that were found.
+     */
+    public int find(BoardState boardState, Piece player, long[] stable) {
+        boardState.copyDiscs(player, this.own);
+
+        if (!isAny(stable) && !isAnyCommon(this.own, this.corners))
+            return 0;
+
+        boardState.copyDiscs(boardState.getRival(player), this.occupied);
+
+        for (int word = 0; word < this.occupied.length; word++)
+            this.occupied[word] |= this.own[word];
+
+        for (int axis = 0; axis < AXES.length; axis++)
+            findProtected(AXES[axis], this.protectedSquares[axis]);
+
+        boolean isGrown = true;
+
+        while (isGrown) { // spreading from the stable discs until nothing is added
+            for (int word = 0; word < this.candidates.length; word++)
+                this.candidates[word] = this.own[word] & ~stable[word];
+
+            for (int axis = 0; axis < AXES.length; axis++) {
+                long[] protectedOnAxis = this.protectedSquares[axis];
+
+                // a piece is protected on the line if the next square on either side is stable
+                this.geometry.shift(stable, AXES[axis], this.shifted);
+                this.geometry.shift(stable, BoardGeometry.getOpposite(AXES[axis]),
+                        this.shiftedBack);
+
+                for (int word = 0; word < this.candidates.length; word++)
+                    this.candidates[word] &= protectedOnAxis[word] | this.shifted[word]
+                            | this.shiftedBack[word];
+            }
+
+            isGrown = false;
+
+            for (int word = 0; word < this.candidates.length; word++)
+                if (this.candidates[word] != 0) {
+                    stable[word] |= this.candidates[word];
+                    isGrown = true;
+                }
+        }
+
+        return BoardGeometry.bitCount(stable);
+    }
+
+    /**
+     * A private method that receives a direction and a bitboard to fill, and fills it with the
+     * squares that can't be flipped along the line of that direction regardless of the squares
+     * next to them: the squares on the edge of the board on either side of the line, and the
+     * squares of the lines that are full.
+     *
+     * @param direction an index of a direction.
+     * @param protectedOnAxis a bitboard to fill with the protected squares along the line.
+     */
+    private void findProtected(int direction, long[] protectedOnAxis) {
+        long[] edge = this.geometry.getEdge(direction);
+        long[] oppositeEdge = this.geometry.getEdge(BoardGeometry.getOpposite(direction));
+
+        for (int word = 0; word < protectedOnAxis.length; word++)
+            protectedOnAxis[word] = edge[word] | oppositeEdge[word];
+
+        for (long[] line: this.geometry.getLines(direction))
+            if (isFull(line))
+                for (int word = 0; word < protectedOnAxis.length; word++)
+                    protectedOnAxis[word] |= line[word];
+    }
+
+    /**
+     * A private method that receives a mask of a line and returns true if all of it's squares
+     * are occupied, or false otherwise.
+     *
+     * @param line a mask of a line of the board.
+     * @return true if all the squares of the line are occupied, false otherwise.
+     */
+    private boolean isFull(long[] line) {
+        for (int word = 0; word < line.length; word++)
+            if ((this.occupied[word] & line[word]) != line[word])
+                return false;
+
+        return true;
+    }
+
+    /**
+     * A private static function that receives a bitboard and returns true if any of it's squares
+     * is set, or false otherwise.
+     *
+     * @param bits a bitboard.
+     * @return true if any square of the bitboard is set, false otherwise.
+     */
+    private static boolean isAny(long[] bits) {
+        for (long word: bits)
+            if (word != 0)
+                return true;
+
+        return false;
+    }
+
+    /**
+     * A private static function that receives two bitboards and returns true if they have any
+     * square in common, or false otherwise.
+     *
+     * @param first a bitboard.
+     * @param second a bitboard.
+     * @return true if the bitboards have any square in common, false otherwise.
+     */
+    private static boolean isAnyCommon(long[] first, long[] second) {
+        for (int word = 0; word < first.length; word++)
+            if ((first[word] & second[word]) != 0)
+                return true;
+
+        return false;
+    }
+}
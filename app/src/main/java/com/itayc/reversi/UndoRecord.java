@@ -0,0 +1,139 @@
+package com.itayc.reversi;
+
+/**
+ * A class used as a reusable record of a move that was made on a board state (see
+ * BoardState.makeMove), that holds everything that is needed to restore the board state exactly
+ * as it was before the move (see BoardState.unmakeMove).
+ *
+ * Like MoveList, the buffers are allocated once (big enough for any move of the board size), so
+ * making and unmaking moves over and over doesn't allocate anything.
+ */
+public class UndoRecord {
+
+    // Attributes
+
+    private final MoveList move; // buffer that holds the recorded move (a single move)
+    private final long[] savedWords; // words that the board state saved before the move
+    private Piece currentPlayer; // the player that made the move
+    private Piece otherPlayer; // the rival of the player that made the move
+    private long savedHash; // the hash of the board state before the move
+
+
+    // Constructor
+
+    /**
+     * Constructor of the class: receives a board size and allocates a record that is big enough
+     * for any move of that board size.
+     *
+     * @param boardSize the length of the side of the board matrix.
+     */
+    public UndoRecord(int boardSize) {
+        int words = BoardGeometry.getWords(boardSize * boardSize);
+
+        this.move = new MoveList(boardSize);
+        this.savedWords = new long[2 * words]; // enough for 2 bitboards
+    }
+
+
+    // Methods
+
+    /**
+     * A method that receives the players of a move that is being made, records them and clears
+     * the recorded move, so that the board state will add the move to it (see getMove).
+     *
+     * @param currentPlayer the player that makes the move.
+     * @param otherPlayer the rival of the player that makes the move.
+     */
+    public void record(Piece currentPlayer, Piece otherPlayer) {
+        this.move.clear();
+        this.currentPlayer = currentPlayer;
+        this.otherPlayer = otherPlayer;
+    }
+
+    /**
+     * A getter for the buffer that holds the recorded move: the board state adds the flipped
+     * squares and then the square of the move to it while making the move.
+     *
+     * @return the buffer that holds the recorded move.
+     */
+    public MoveList getMove() {
+        return this.move;
+    }
+
+    /**
+     * A getter for the square of the recorded move.
+     *
+     * @return the square index of the recorded move.
+     */
+    public int getSquare() {
+        return this.move.getMove(0);
+    }
+
+    /**
+     * A getter for the amount of squares that the recorded move flipped.
+     *
+     * @return the amount of squares that the recorded move flipped.
+     */
+    public int getFlipsCount() {
+        return this.move.getFlipsCount(0);
+    }
+
+    /**
+     * A method that receives an index of a flip (less than the flips count) and returns the
+     * flipped square.
+     *
+     * @param index an index of a flip.
+     * @return the index of the flipped square.
+     */
+    public int getFlip(int index) {
+        return this.move.getFlip(index); // the flips of the only move start at 0
+    }
+
+    /**
+     * A getter for the player that made the recorded move.
+     *
+     * @return the player that made the recorded move.
+     */
+    public Piece getCurrentPlayer() {
+        return this.currentPlayer;
+    }
+
+    /**
+     * A getter for the rival of the player that made the recorded move.
+     *
+     * @return the rival of the player that made the recorded move.
+     */
+    public Piece getOtherPlayer() {
+        return this.otherPlayer;
+    }
+
+    /**
+     * A setter for the hash of the board state before the move (see BoardState.hashMove).
+     *
+     * @param savedHash the hash of the board state before the move.
+     */
+    public void setSavedHash(long savedHash) {
+        this.savedHash = savedHash;
+    }
+
+    /**
+     * A getter for the hash of the board state before the move.
+     *
+     * @return the hash of the board state before the move.
+     */
+    public long getSavedHash() {
+        return this.savedHash;
+    }
+
+    /**
+     * A getter for the words that the board state saved before the move, so it will be able to
+     * restore them (enough for 2 bitboards of the board size).
+     *
+     * Note that the returned array is NOT a copy - it's to be filled by the board state.
+     *
+     * @return the words that the board state saved before the move.
+     */
+    public long[] getSavedWords() {
+        return this.savedWords;
+    }
+}
@@ -0,0 +1,146 @@
+package com.itayc.reversi;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A class that represents the valid choices (moves) of a player in a turn.
+ *
+ * The squares of the choices are received at once when the object is created (as a bitboard,
+ * see LegalMoveTracker), but the pieces that a choice obtains are found only when they are
+ * requested for that choice (for example when it's played or touched), so that choices that are
+ * never looked at don't pay for them.
+ *
+ * Since the obtained pieces are found on the board state of the turn, they can be requested only
+ * until the board state changes (the squares can be requested at any time).
+ */
+public class ValidChoices {
+
+    // Attributes
+
+    private final BoardState boardState; // the board state of the turn
+    private final Piece currentPlayer; // the player of the choices
+    private final Piece nextPlayer; // the rival of the player of the choices
+
+    private final int[] squares; // the squares of the choices
+    private final HashMap<Integer, List<Cell>> obtainable; // the obtainable squares of the
+    // choices that were already requested
+    private final MoveList move; // buffer for finding the obtainable squares of a choice
+    private final Cell[] cells; // the (shared) cells of the board size, by square index
+
+
+    // Constructor
+
+    /**
+     * Constructor of the class: receives a board state, the players of the turn and a bitboard
+     * of the valid moves of the current player that were already found (see LegalMoveTracker).
+     *
+     * @param boardState the board state of the turn.
+     * @param currentPlayer the piece of the current player.
+     * @param nextPlayer the piece of the next player to play.
+     * @param moves a bitboard of the valid moves of the current player (only read).
+     */
+    public ValidChoices(BoardState boardState, Piece currentPlayer, Piece nextPlayer,
+                        long[] moves) {
+        int boardSize = boardState.getBoardSize();
+
+        this.boardState = boardState;
+        this.currentPlayer = currentPlayer;
+        this.nextPlayer = nextPlayer;
+
+        this.squares = new int[BoardGeometry.bitCount(moves)];
+
+        int square = BoardGeometry.nextSetBit(moves, 0);
+
+        for (int i = 0; i < this.squares.length; i++) {
+            this.squares[i] = square;
+            square = BoardGeometry.nextSetBit(moves, square + 1);
+        }
+
+        this.obtainable = new HashMap<>();
+        this.move = new MoveList(boardSize);
+        this.cells = Cell.getCells(boardSize);
+    }
+
+
+    // Methods
+
+    /**
+     * A method that returns the amount of valid choices.
+     *
+     * @return the amount of valid choices.
+     */
+    public int size() {
+        return this.squares.length;
+    }
+
+    /**
+     * A getter for the squares of the valid choices.
+     *
+     * Note that the returned array is NOT a copy, therefore it is not to be modified.
+     *
+     * @return the indexes of the squares of the valid choices (see Cell.toSquareIndex).
+     */
+    public int[] getSquares() {
+        return this.squares;
+    }
+
+    /**
+     * A method that receives a square of a valid choice, and returns a List of Cells that holds
+     * the new pieces that would be obtained by placing a piece on that square: the flipped pieces
+     * first, and the placed square itself last.
+     *
+     * The List is built on the first request for the square, and kept for the next ones.
+     *
+     * @param square the index of the square of a valid choice.
+     * @return a List of the Cells that would be obtained by choosing the received square.
+     */
+    public List<Cell> get(int square) {
+        List<Cell> toChange = this.obtainable.get(square);
+
+        if (toChange == null) { // first request
+            resolve(square);
+            toChange = new ArrayList<>(this.move.getFlipsCount(0) + 1);
+
+            for (int flip = 0; flip < this.move.getFlipsEnd(0); flip++)
+                toChange.add(this.cells[this.move.getFlip(flip)]);
+
+            toChange.add(this.cells[square]); // the placed piece
+
+            this.obtainable.put(square, toChange);
+        }
+
+        return toChange;
+    }
+
+    /**
+     * A method that receives a square of a valid choice, and returns the amount of the new
+     * pieces that would be obtained by placing a piece on that square (including the placed
+     * piece), without building their List.
+     *
+     * @param square the index of the square of a valid choice.
+     * @return the amount of pieces that would be obtained by choosing the received square.
+     */
+    public int getObtainableCount(int square) {
+        List<Cell> toChange = this.obtainable.get(square);
+
+        if (toChange != null) // already built
+            return toChange.size();
+
+        resolve(square);
+
+        return this.move.getFlipsCount(0) + 1; // 1 for the placed piece
+    }
+
+    /**
+     * A private method that receives a square of a valid choice and finds the flipped pieces of
+     * that choice into the buffer of the class.
+     *
+     * @param square the index of the square of a valid choice.
+     */
+    private void resolve(int square) {
+        this.move.clear();
+        this.boardState.resolveMove(square, this.currentPlayer, this.nextPlayer, this.move);
+    }
+}
@@ -0,0 +1,91 @@
+package com.itayc.reversi;
+
+import java.util.Random;
+
+/**
+ * A class that holds the random keys of the Zobrist hashing of the positions of a board size: a
+ * key for every square and player (first or second), and a key for the side to move.
+ *
+ * The hash of a position is the XOR of the keys of the pieces on the board (and of the key of the
+ * side to move if it's the second player), so that placing or flipping a piece changes it by
+ * a single XOR or two (see BoardState.getZobristHash), instead of going over the whole board.
+ *
+ * The keys are generated from a fixed seed, so that the hash of a position is the same across
+ * runs of the app. An instance is created once for every board size (on the first request) and
+ * is shared by all the board states of that size.
+ */
+public class ZobristKeys {
+
+    // Attributes
+
+    private static final long SEED = 0x5EED5A17L; // the seed of the keys of every board size
+
+    // the keys of the board sizes
+    private static final ZobristKeys[] keys = new ZobristKeys[BoardModel.MAX_BOARD_SIZE + 1];
+
+    private final long[] firstKeys; // the key of every square for the first player
+    private final long[] secondKeys; // the key of every square for the second player
+    private final long sideKey; // the key of the second player being the side to move
+
+
+    // Constructor
+
+    /**
+     * Constructor of the class: receives a board size and generates the keys of that size.
+     *
+     * @param boardSize the length of the side of the board matrix.
+     */
+    private ZobristKeys(int boardSize) {
+        int squares = boardSize * boardSize;
+        Random random = new Random(SEED + boardSize);
+
+        this.firstKeys = new long[squares];
+        this.secondKeys = new long[squares];
+
+        for (int square = 0; square < squares; square++) {
+            this.firstKeys[square] = random.nextLong();
+            this.secondKeys[square] = random.nextLong();
+        }
+
+        this.sideKey = random.nextLong();
+    }
+
+
+    // Methods
+
+    /**
+     * A static function that receives a board size and returns the keys of that board size.
+     * The keys are generated on the first request, and shared afterwards.
+     *
+     * @param boardSize the length of the side of the board matrix.
+     * @return the keys of the received board size.
+     */
+    public static synchronized ZobristKeys getInstance(int boardSize) {
+        if (keys[boardSize] == null)
+            keys[boardSize] = new ZobristKeys(boardSize);
+
+        return keys[boardSize];
+    }
+
+    /**
+     * A method that receives a square and whether the piece on it is of the first player, and
+     * returns the key of that piece.
+     *
+     * @param square the index of a square.
+     * @param isFirstPlayer true if the piece is of the first player, false if it's of the second.
+     * @return the key of the piece on the received square.
+     */
+    public long getKey(int square, boolean isFirstPlayer) {
+        return isFirstPlayer ? this.firstKeys[square] : this.secondKeys[square];
+    }
+
+    /**
+     * A getter for the key of the side to move (XORed into the hash when it's the second
+     * player's turn).
+     *
+     * @return the key of the second player being the side to move.
+     */
+    public long getSideKey() {
+        return this.sideKey;
+    }
+}
@@ -0,0 +1,60 @@
+package com.itayc.reversi;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of BoardStateArena: borrowing copies the position into a slot that is reused,
+ * and the high water mark follows the deepest borrowed ply.
+ */
+public class BoardStateArenaTest {
+
+    private static final int PLIES = 4; // the amount of plies of the arena
+
+    @Test
+    public void borrow_copiesIntoReusedSlot() {
+        for (int boardSize: TestGames.BOARD_SIZES) {
+            BoardState position = BoardState.newInstance(boardSize, Piece.BLACK, Piece.WHITE);
+
+            position.copyBoard(TestGames.createStartBoard(boardSize));
+
+            BoardStateArena arena = BoardStateArena.getInstance(boardSize, Piece.BLACK,
+                    Piece.WHITE, PLIES);
+            BoardState slot = arena.borrow(0, position);
+
+            assertNotSame(position, slot);
+            assertArrayEquals(position.getBoardClone(), slot.getBoardClone());
+            assertEquals(position.getZobristHash(Piece.BLACK),
+                    slot.getZobristHash(Piece.BLACK));
+
+            // the slot is a copy: changing it doesn't change the position
+            int move = BoardGeometry.nextSetBit(TestGames.getMoves(slot, Piece.BLACK), 0);
+
+            slot.makeMove(move, Piece.BLACK, Piece.WHITE, new UndoRecord(boardSize));
+            assertTrue(position.isSquareEmpty(move));
+
+            assertSame(arena, BoardStateArena.getInstance(boardSize, Piece.BLACK, Piece.WHITE,
+                    PLIES));
+            assertSame(slot, arena.borrow(0, position));
+            assertTrue(slot.isSquareEmpty(move));
+        }
+    }
+
+    @Test
+    public void highWaterMark_isDeepestBorrowedPly() {
+        BoardState position = BoardState.newInstance(6, Piece.BLACK, Piece.WHITE);
+
+        position.copyBoard(TestGames.createStartBoard(6));
+
+        BoardStateArena arena = BoardStateArena.getInstance(6, Piece.BLACK, Piece.WHITE, PLIES);
+        int deepest = arena.getCapacity() - 1;
+
+        assertTrue(arena.getCapacity() >= PLIES);
+
+        arena.borrow(deepest, position);
+        arena.borrow(0, position);
+
+        assertEquals(deepest + 1, arena.getHighWaterMark());
+    }
+}
@@ -0,0 +1,75 @@
+package com.itayc.reversi;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the board state implementations: the Zobrist hash that is kept
+ * incrementally across moves against hashing the board from scratch.
+ */
+public class BoardStateTest {
+
+    private static final int GAMES = 5; // random games played on every board size
+    private static final long SEED = 7; // the seed of the random games
+
+    @Test
+    public void zobristHash_incrementalMatchesRehash() {
+        Random random = new Random(SEED);
+
+        for (int boardSize: TestGames.BOARD_SIZES)
+            for (BoardState boardState: Perft.createImplementations(boardSize, Piece.BLACK,
+                    Piece.WHITE))
+                for (int game = 0; game < GAMES; game++) {
+                    boardState.copyBoard(TestGames.createStartBoard(boardSize));
+
+                    UndoRecord undo = new UndoRecord(boardSize);
+                    Piece current = Piece.BLACK;
+                    int move;
+
+                    while ((move = TestGames.pickMove(boardState, current, random))
+                            != TestGames.NO_MOVE) {
+                        long before = boardState.getZobristHash(current);
+
+                        boardState.makeMove(move, current, boardState.getRival(current), undo);
+                        assertEquals(boardState.getClass().getSimpleName(),
+                                rehash(boardState).getZobristHash(current),
+                                boardState.getZobristHash(current));
+
+                        boardState.unmakeMove(undo);
+                        assertEquals(before, boardState.getZobristHash(current));
+
+                        boardState.makeMove(move, current, boardState.getRival(current), undo);
+                        current = TestGames.getNextPlayer(boardState, current);
+                    }
+                }
+    }
+
+    @Test
+    public void zobristHash_dependsOnPlayerToMove() {
+        BoardState boardState = BoardState.newInstance(8, Piece.BLACK, Piece.WHITE);
+
+        boardState.copyBoard(TestGames.createStartBoard(8));
+
+        assertNotEquals(boardState.getZobristHash(Piece.BLACK),
+                boardState.getZobristHash(Piece.WHITE));
+    }
+
+    /**
+     * A private static function that receives a board state and returns a new board state with
+     * the same board size, players and board, whose hash is found from scratch.
+     *
+     * @param boardState a board state.
+     * @return a new board state with the same board, hashed from scratch.
+     */
+    private static BoardState rehash(BoardState boardState) {
+        BoardState fresh = BoardState.newInstance(boardState.getBoardSize(),
+                boardState.getFirstPlayer(), boardState.getSecondPlayer());
+
+        fresh.copyBoard(boardState.getBoardClone());
+
+        return fresh;
+    }
+}
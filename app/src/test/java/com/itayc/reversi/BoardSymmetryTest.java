@@ -0,0 +1,117 @@
+package com.itayc.reversi;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of BoardSymmetry: the canonical hash of the symmetric orientations of random
+ * positions, and the mapping of squares and bitboards between the orientations.
+ */
+public class BoardSymmetryTest {
+
+    private static final int GAMES = 3; // random games played on every board size
+    private static final long SEED = 7; // the seed of the random games
+
+    @Test
+    public void canonicalHash_equalForAllOrientations() {
+        Random random = new Random(SEED);
+
+        for (int boardSize = BoardModel.MIN_BOARD_SIZE; boardSize <= BoardModel.MAX_BOARD_SIZE;
+             boardSize += 2) {
+            BoardSymmetry symmetry = BoardSymmetry.getInstance(boardSize);
+            BoardState boardState = BoardState.newInstance(boardSize, Piece.BLACK, Piece.WHITE);
+            BoardState oriented = BoardState.newInstance(boardSize, Piece.BLACK, Piece.WHITE);
+
+            for (int game = 0; game < GAMES; game++) {
+                boardState.copyBoard(TestGames.createStartBoard(boardSize));
+
+                UndoRecord undo = new UndoRecord(boardSize);
+                Piece current = Piece.BLACK;
+                int move;
+
+                while ((move = TestGames.pickMove(boardState, current, random))
+                        != TestGames.NO_MOVE) {
+                    boardState.makeMove(move, current, boardState.getRival(current), undo);
+                    current = TestGames.getNextPlayer(boardState, current);
+
+                    Piece[][] board = boardState.getBoardClone();
+                    long canonicalHash = symmetry.getCanonicalHash(boardState, current);
+
+                    for (int image = 0; image < BoardSymmetry.SYMMETRIES; image++) {
+                        oriented.copyBoard(symmetry.transformBoard(image, board));
+
+                        assertEquals("size " + boardSize + " symmetry " + image, canonicalHash,
+                                symmetry.getCanonicalHash(oriented, current));
+                    }
+
+                    // the canonical orientation is the one that has the canonical hash
+                    oriented.copyBoard(symmetry.transformBoard(
+                            symmetry.getCanonicalSymmetry(boardState), board));
+                    assertEquals(canonicalHash, oriented.getZobristHash(current));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void canonicalHash_differsForDifferentPositions() {
+        BoardSymmetry symmetry = BoardSymmetry.getInstance(8);
+        BoardState boardState = BoardState.newInstance(8, Piece.BLACK, Piece.WHITE);
+
+        boardState.copyBoard(TestGames.createStartBoard(8));
+
+        long startHash = symmetry.getCanonicalHash(boardState, Piece.BLACK);
+
+        assertNotEquals(startHash, symmetry.getCanonicalHash(boardState, Piece.WHITE));
+
+        // all the 4 first moves of the start position are symmetric to each other
+        long[] moves = TestGames.getMoves(boardState, Piece.BLACK);
+        UndoRecord undo = new UndoRecord(8);
+        long movedHash = 0;
+
+        for (int move = BoardGeometry.nextSetBit(moves, 0); move != -1;
+             move = BoardGeometry.nextSetBit(moves, move + 1)) {
+            boardState.makeMove(move, Piece.BLACK, Piece.WHITE, undo);
+
+            long hash = symmetry.getCanonicalHash(boardState, Piece.WHITE);
+
+            assertNotEquals(startHash, hash);
+
+            if (movedHash != 0)
+                assertEquals(movedHash, hash);
+
+            movedHash = hash;
+            boardState.unmakeMove(undo);
+        }
+    }
+
+    @Test
+    public void inverseSquare_undoesTransformSquare() {
+        for (int boardSize = BoardModel.MIN_BOARD_SIZE; boardSize <= BoardModel.MAX_BOARD_SIZE;
+             boardSize += 2) {
+            BoardSymmetry symmetry = BoardSymmetry.getInstance(boardSize);
+            int words = BoardGeometry.getWords(boardSize * boardSize);
+
+            for (int image = 0; image < BoardSymmetry.SYMMETRIES; image++) {
+                long[] bits = new long[words];
+                long[] transformed = new long[words];
+                long[] restored = new long[words];
+
+                for (int square = 0; square < boardSize * boardSize; square++) {
+                    assertEquals(square, symmetry.inverseSquare(image,
+                            symmetry.transformSquare(image, square)));
+
+                    if (square % 3 == 0)
+                        BoardGeometry.setBit(bits, square);
+                }
+
+                symmetry.transformBits(image, bits, transformed);
+                symmetry.transformBits(symmetry.getInverse(image), transformed, restored);
+                assertArrayEquals(bits, restored);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.itayc.reversi;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of ComputerTurn: a turn that is calculated on another thread finds a valid
+ * move, without changing the game it was created from, and a turn that is cancelled by a change
+ * of the game never searches.
+ */
+public class ComputerTurnTest {
+
+    @Test
+    public void findMove_onAnotherThread_findsValidMove() throws InterruptedException {
+        for (int boardSize: TestGames.BOARD_SIZES) {
+            GameController controller = new GameController(Piece.BLACK, Piece.WHITE,
+                    BoardModel.getMatchingStartSizes(boardSize).get(0), boardSize, Piece.BLACK,
+                    GameController.Difficulty.HARD, false, null);
+            Piece[][] before = controller.getBoardClone();
+            final ComputerTurn turn = controller.createComputerTurn();
+
+            assertFalse(turn.isDone());
+
+            Thread engine = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    turn.findMove();
+                }
+            });
+
+            engine.start();
+            engine.join();
+
+            assertTrue(turn.isDone());
+            assertNotNull(controller.getValidChoices().get(turn.getMove()));
+            assertArrayEquals(before, controller.getBoardClone());
+        }
+    }
+
+    @Test
+    public void gameChange_cancelsTurnBeforeSearch() {
+        GameController controller = new GameController(Piece.BLACK, Piece.WHITE,
+                BoardModel.getMatchingStartSizes(8).get(0), 8, Piece.BLACK,
+                GameController.Difficulty.HARD, false, null);
+        ComputerTurn turn = controller.createComputerTurn();
+
+        controller.newGame();
+
+        assertTrue(turn.isCancelled());
+        assertEquals(MinimaxSearch.NO_MOVE, turn.findMove());
+        assertEquals(-1, turn.getToken().getCancelLatency()); // never reached the search
+    }
+}
@@ -0,0 +1,115 @@
+package com.itayc.reversi;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of EmptyRegions: the regions that are kept by placing and restoring the
+ * squares of the moves of random games, against finding them from scratch.
+ */
+public class EmptyRegionsTest {
+
+    private static final int GAMES = 5; // random games played on every board size
+    private static final long SEED = 7; // the seed of the random games
+
+    @Test
+    public void placeAndRestore_matchReset() {
+        Random random = new Random(SEED);
+
+        for (int boardSize: TestGames.BOARD_SIZES) {
+            BoardState boardState = BoardState.newInstance(boardSize, Piece.BLACK, Piece.WHITE);
+            EmptyRegions regions = new EmptyRegions(boardSize);
+            EmptyRegions fresh = new EmptyRegions(boardSize);
+
+            for (int game = 0; game < GAMES; game++) {
+                boardState.copyBoard(TestGames.createStartBoard(boardSize));
+                regions.reset(boardState);
+
+                UndoRecord undo = new UndoRecord(boardSize);
+                Piece current = Piece.BLACK;
+                int move;
+
+                while ((move = TestGames.pickMove(boardState, current, random))
+                        != TestGames.NO_MOVE) {
+                    boardState.makeMove(move, current, boardState.getRival(current), undo);
+                    regions.place(move);
+                    fresh.reset(boardState);
+                    assertEquals(getRegions(fresh), getRegions(regions));
+
+                    boardState.unmakeMove(undo);
+                    regions.restore(move);
+                    fresh.reset(boardState);
+                    assertEquals(getRegions(fresh), getRegions(regions));
+
+                    boardState.makeMove(move, current, boardState.getRival(current), undo);
+                    regions.place(move);
+                    current = TestGames.getNextPlayer(boardState, current);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void oddSquares_areTheSquaresOfOddRegions() {
+        Random random = new Random(SEED);
+        int boardSize = 6;
+        BoardState boardState = BoardState.newInstance(boardSize, Piece.BLACK, Piece.WHITE);
+        EmptyRegions regions = new EmptyRegions(boardSize);
+        long[] oddSquares = new long[BoardGeometry.getWords(boardSize * boardSize)];
+
+        for (int game = 0; game < GAMES; game++) {
+            boardState.copyBoard(TestGames.createStartBoard(boardSize));
+            regions.reset(boardState);
+
+            UndoRecord undo = new UndoRecord(boardSize);
+            Piece current = Piece.BLACK;
+            int move;
+
+            while ((move = TestGames.pickMove(boardState, current, random))
+                    != TestGames.NO_MOVE) {
+                boardState.makeMove(move, current, boardState.getRival(current), undo);
+                regions.place(move);
+                regions.copyOddSquares(oddSquares);
+
+                int oddSize = 0;
+
+                for (int index = 0; index < regions.getRegionCount(); index++)
+                    if (regions.isOdd(index))
+                        oddSize += regions.getRegionSize(index);
+
+                assertEquals(oddSize, BoardGeometry.bitCount(oddSquares));
+
+                for (int square = BoardGeometry.nextSetBit(oddSquares, 0); square != -1;
+                     square = BoardGeometry.nextSetBit(oddSquares, square + 1))
+                    assertTrue(regions.isOdd(regions.getRegion(square)));
+
+                current = TestGames.getNextPlayer(boardState, current);
+            }
+        }
+    }
+
+    /**
+     * A private static function that receives the regions of the empty squares of a board
+     * state, and returns them as a Set (their order isn't kept, see EmptyRegions).
+     *
+     * @param regions the regions of the empty squares of a board state.
+     * @return a Set of the squares of every region.
+     */
+    private static Set<String> getRegions(EmptyRegions regions) {
+        Set<String> squares = new HashSet<>();
+
+        for (int index = 0; index < regions.getRegionCount(); index++) {
+            assertEquals(BoardGeometry.bitCount(regions.getSquares(index)),
+                    regions.getRegionSize(index));
+            squares.add(Arrays.toString(regions.getSquares(index)));
+        }
+
+        return squares;
+    }
+}
@@ -0,0 +1,51 @@
+package com.itayc.reversi;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of LegalMoveTracker: the legal moves that it keeps incrementally across turns
+ * against generating them over the whole board.
+ */
+public class LegalMoveTrackerTest {
+
+    private static final int GAMES = 5; // random games played on every board size
+    private static final long SEED = 7; // the seed of the random games
+
+    @Test
+    public void update_matchesFullGeneration() {
+        Random random = new Random(SEED);
+
+        for (int boardSize: TestGames.BOARD_SIZES)
+            for (BoardState boardState: Perft.createImplementations(boardSize, Piece.BLACK,
+                    Piece.WHITE))
+                for (int game = 0; game < GAMES; game++) {
+                    boardState.copyBoard(TestGames.createStartBoard(boardSize));
+
+                    LegalMoveTracker tracker = new LegalMoveTracker(boardState);
+                    Piece current = Piece.BLACK;
+                    int move;
+
+                    while ((move = TestGames.pickMove(boardState, current, random))
+                            != TestGames.NO_MOVE) {
+                        Piece rival = boardState.getRival(current);
+                        List<Cell> changed = new ValidChoices(boardState, current, rival,
+                                tracker.getMoves(current)).get(move);
+
+                        boardState.updateBoard(changed, current, rival);
+                        tracker.update(changed);
+
+                        for (Piece player: new Piece[]{Piece.BLACK, Piece.WHITE})
+                            assertArrayEquals(boardState.getClass().getSimpleName(),
+                                    TestGames.getMoves(boardState, player),
+                                    tracker.getMoves(player));
+
+                        current = TestGames.getNextPlayer(boardState, current);
+                    }
+                }
+    }
+}
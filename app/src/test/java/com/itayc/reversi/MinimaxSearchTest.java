@@ -0,0 +1,105 @@
+package com.itayc.reversi;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the cancellation and the time limit of MinimaxSearch: a cancelled search
+ * stops soon after it was cancelled, returns NO_MOVE and acknowledges the cancellation; and a
+ * search that runs out of time keeps the move of the last iteration that ended.
+ */
+public class MinimaxSearchTest {
+
+    private static final int BOARD_SIZE = 20; // a board that can't be searched deeply in time
+    private static final int DEEP = 60; // a depth that can't be reached in time
+    private static final long CANCEL_DELAY = 50; // the time before the cancellation, milliseconds
+    private static final long STOP_LIMIT = 500; // the time allowed to stop, in milliseconds
+    private static final long TIME_LIMIT = 100; // the time limit of the tests, in milliseconds
+    private static final long TIME_SLACK = 400; // the time allowed past the time limit
+    private static final int OPENING_TURNS = 4; // turns played before a search
+
+    @Test
+    public void cancelledSearch_stopsWithNoMove() throws InterruptedException {
+        final MinimaxSearch search = new MinimaxSearch(DEEP, BOARD_SIZE, Piece.BLACK,
+                Piece.WHITE);
+        final Piece[][] board = TestGames.createStartBoard(BOARD_SIZE);
+        final CancellationToken token = new CancellationToken();
+        final int[] move = new int[1];
+
+        Thread engine = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                move[0] = search.findMove(board, Piece.BLACK, Piece.WHITE, token);
+            }
+        });
+
+        engine.start();
+        Thread.sleep(CANCEL_DELAY);
+
+        long start = System.nanoTime();
+
+        token.cancel();
+        engine.join();
+
+        long millis = (System.nanoTime() - start) / 1000000;
+
+        assertTrue("took " + millis + " ms", millis < STOP_LIMIT);
+        assertEquals(MinimaxSearch.NO_MOVE, move[0]);
+        assertTrue(token.getCancelLatency() >= 0);
+        assertTrue(CancellationToken.getCancelCount() > 0);
+    }
+
+    @Test
+    public void searchThatWasntCancelled_recordsNoLatency() {
+        MinimaxSearch search = new MinimaxSearch(1, BOARD_SIZE, Piece.BLACK, Piece.WHITE);
+        Piece[][] board = TestGames.createStartBoard(BOARD_SIZE);
+        CancellationToken token = new CancellationToken();
+
+        int move = search.findMove(board, Piece.BLACK, Piece.WHITE, token);
+
+        assertNotEquals(MinimaxSearch.NO_MOVE, move);
+        assertEquals(-1, token.getCancelLatency());
+    }
+
+    @Test
+    public void timeLimitedSearch_returnsValidMoveInTime() {
+        Piece[][] board = TestGames.createStartBoard(BOARD_SIZE);
+        BoardState position = BoardState.newInstance(BOARD_SIZE, Piece.BLACK, Piece.WHITE);
+
+        position.copyBoard(board);
+
+        long start = System.nanoTime();
+        int move = new MinimaxSearch(DEEP, BOARD_SIZE, Piece.BLACK, Piece.WHITE, TIME_LIMIT)
+                .findMove(board, Piece.BLACK, Piece.WHITE, new CancellationToken());
+        long millis = (System.nanoTime() - start) / 1000000;
+
+        assertTrue("took " + millis + " ms", millis < TIME_LIMIT + TIME_SLACK);
+        assertTrue(position.isValidMove(move, Piece.BLACK, Piece.WHITE));
+    }
+
+    @Test
+    public void timeLimitedSearch_keepsMoveOfLastIterationThatEnded() {
+        BoardState position = BoardState.newInstance(BOARD_SIZE, Piece.BLACK, Piece.WHITE);
+
+        position.copyBoard(TestGames.createStartBoard(BOARD_SIZE));
+
+        // an opening that isn't symmetric, so the moves don't all have the same value
+        for (int turn = 0; turn < OPENING_TURNS; turn++) {
+            Piece current = turn % 2 == 0 ? Piece.BLACK : Piece.WHITE;
+
+            position.makeMove(BoardGeometry.nextSetBit(TestGames.getMoves(position, current), 0),
+                    current, position.getRival(current), new UndoRecord(BOARD_SIZE));
+        }
+
+        Piece[][] board = position.getBoardClone();
+
+        // without time only the first iteration (that isn't time limited) ends
+        int move = new MinimaxSearch(DEEP, BOARD_SIZE, Piece.BLACK, Piece.WHITE, 0)
+                .findMove(board, Piece.BLACK, Piece.WHITE, new CancellationToken());
+        int firstIterationMove = new MinimaxSearch(1, BOARD_SIZE, Piece.BLACK, Piece.WHITE)
+                .findMove(board, Piece.BLACK, Piece.WHITE, new CancellationToken());
+
+        assertEquals(firstIterationMove, move);
+    }
+}
@@ -0,0 +1,45 @@
+package com.itayc.reversi;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of Perft: the counts of the 8x8 start position against the known values, and
+ * the counts of every board state implementation against each other on the largest board.
+ */
+public class PerftTest {
+
+    // the positions after every amount of turns from the 8x8 start position (depth 0 to 8)
+    private static final long[] START_8X8_COUNTS =
+            {1, 4, 12, 56, 244, 1396, 8200, 55092, 390216};
+
+    private static final int LARGE_BOARD_SIZE = 20; // the largest board size of the game
+    private static final int LARGE_BOARD_DEPTH = 8; // the perft depth on the largest board
+
+    @Test
+    public void start8x8_countsMatchKnownValues() {
+        for (BoardState boardState: Perft.createImplementations(8, Piece.BLACK, Piece.WHITE)) {
+            boardState.copyBoard(TestGames.createStartBoard(8));
+
+            Perft perft = new Perft(boardState, START_8X8_COUNTS.length - 1);
+
+            for (int depth = 0; depth < START_8X8_COUNTS.length; depth++)
+                assertEquals(boardState.getClass().getSimpleName() + " depth " + depth,
+                        START_8X8_COUNTS[depth], perft.count(Piece.BLACK, depth));
+        }
+    }
+
+    @Test
+    public void largeBoard_implementationsCountTheSame() {
+        LiveGameDetails start = TestGames.createStartGame(LARGE_BOARD_SIZE);
+
+        // throws if the implementations count differently
+        List<String> report = Perft.verify(start, LARGE_BOARD_DEPTH);
+
+        assertEquals(Perft.createImplementations(LARGE_BOARD_SIZE, Piece.BLACK, Piece.WHITE)
+                .size(), report.size());
+    }
+}
@@ -0,0 +1,132 @@
+package com.itayc.reversi;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of StableDiscs: every disc that is reported as stable has to keep its color
+ * in all the continuations of the game, which are searched exhaustively on small boards and on
+ * positions that are near the end of the game.
+ */
+public class StableDiscsTest {
+
+    private static final int GAMES = 20; // random games played on every board size
+    private static final int MAX_EMPTIES = 8; // the most empty squares of a searched position
+    private static final int SMALL_MAX_EMPTIES = 10; // the most empty squares of a 4x4 position
+    private static final long SEED = 11; // the seed of the random games
+
+    @Test
+    public void stableDiscs_neverFlipped_4x4() {
+        checkRandomGames(4, SMALL_MAX_EMPTIES);
+    }
+
+    @Test
+    public void stableDiscs_neverFlipped_nearEnd() {
+        checkRandomGames(6, MAX_EMPTIES);
+        checkRandomGames(8, MAX_EMPTIES);
+    }
+
+    /**
+     * A private method that receives a board size and the most empty squares of a position to
+     * check, plays random games on that board size and checks the stable discs of both players
+     * of every position that has no more empty squares than that.
+     *
+     * @param boardSize the length of the side of the board matrix.
+     * @param maxEmpties the most empty squares of a position to check.
+     */
+    private void checkRandomGames(int boardSize, int maxEmpties) {
+        Random random = new Random(SEED);
+
+        for (int game = 0; game < GAMES; game++) {
+            BoardState boardState = BoardState.newInstance(boardSize, Piece.BLACK, Piece.WHITE);
+            UndoRecord undo = new UndoRecord(boardSize);
+            Piece current = Piece.BLACK;
+            int move;
+
+            boardState.copyBoard(TestGames.createStartBoard(boardSize));
+
+            do {
+                int empties = boardSize * boardSize - boardState.getPieceAmount(Piece.BLACK)
+                        - boardState.getPieceAmount(Piece.WHITE);
+
+                if (empties <= maxEmpties) {
+                    checkStable(boardState, current, Piece.BLACK);
+                    checkStable(boardState, current, Piece.WHITE);
+                }
+
+                move = TestGames.pickMove(boardState, current, random);
+
+                if (move != TestGames.NO_MOVE) {
+                    boardState.makeMove(move, current, boardState.getRival(current), undo);
+                    current = TestGames.getNextPlayer(boardState, current);
+                }
+            } while (move != TestGames.NO_MOVE);
+        }
+    }
+
+    /**
+     * A private method that receives a board state, the player whose turn it is and a player to
+     * check, finds the stable discs of the player to check and checks that none of them changes
+     * its color in any continuation of the game.
+     *
+     * @param boardState a board state.
+     * @param current the player whose turn it is.
+     * @param player the player whose stable discs are checked.
+     */
+    private void checkStable(BoardState boardState, Piece current, Piece player) {
+        int boardSize = boardState.getBoardSize();
+        long[] stable = new long[BoardGeometry.getWords(boardSize * boardSize)];
+        int stableCount = boardState.findStableDiscs(player, stable);
+
+        assertEquals(BoardGeometry.bitCount(stable), stableCount);
+
+        for (int square = BoardGeometry.nextSetBit(stable, 0); square != -1;
+             square = BoardGeometry.nextSetBit(stable, square + 1))
+            assertEquals(player, boardState.getSquare(square / boardSize, square % boardSize));
+
+        checkContinuations(boardState.copy(), current, player, stable, false);
+    }
+
+    /**
+     * A private method that receives a board state, the player whose turn it is, a player and a
+     * bitboard of his stable discs, and whether the previous player passed, and checks that the
+     * stable discs keep their color in every position of the continuations of the game.
+     *
+     * @param boardState a board state.
+     * @param current the player whose turn it is.
+     * @param player the player of the stable discs.
+     * @param stable a bitboard of the stable discs of the player.
+     * @param isPass whether the previous player passed.
+     */
+    private void checkContinuations(BoardState boardState, Piece current, Piece player,
+                                    long[] stable, boolean isPass) {
+        int boardSize = boardState.getBoardSize();
+
+        for (int square = BoardGeometry.nextSetBit(stable, 0); square != -1;
+             square = BoardGeometry.nextSetBit(stable, square + 1))
+            assertEquals("square " + square, player,
+                    boardState.getSquare(square / boardSize, square % boardSize));
+
+        Piece rival = boardState.getRival(current);
+        long[] moves = TestGames.getMoves(boardState, current);
+
+        if (BoardGeometry.nextSetBit(moves, 0) == -1) {
+            if (!isPass) // otherwise neither player can move and the game is over
+                checkContinuations(boardState, rival, player, stable, true);
+
+            return;
+        }
+
+        UndoRecord undo = new UndoRecord(boardSize);
+
+        for (int move = BoardGeometry.nextSetBit(moves, 0); move != -1;
+             move = BoardGeometry.nextSetBit(moves, move + 1)) {
+            boardState.makeMove(move, current, rival, undo);
+            checkContinuations(boardState, rival, player, stable, false);
+            boardState.unmakeMove(undo);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.itayc.reversi;
+
+import java.util.Random;
+
+/**
+ * A class of helpers shared by the local unit tests: it creates start positions, and plays random
+ * games on them.
+ */
+class TestGames {
+
+    // Attributes
+
+    static final int[] BOARD_SIZES = {4, 6, 8, 10, 14, 20}; // board sizes of the games
+    static final int NO_MOVE = -1; // returned by pickMove when the player has no valid move
+
+
+    // Constructor
+
+    /**
+     * Constructor of the class: private, as the class only holds static helpers.
+     */
+    private TestGames() {}
+
+
+    // Methods
+
+    /**
+     * A static function that receives a board size and returns a new game on that board size,
+     * where black starts.
+     *
+     * @param boardSize the length of the side of the board matrix.
+     * @return a new game on the received board size.
+     */
+    static LiveGameDetails createStartGame(int boardSize) {
+        return new LiveGameDetails(Piece.BLACK, Piece.WHITE, boardSize,
+                BoardModel.getMatchingStartSizes(boardSize).get(0), Piece.BLACK,
+                GameController.Difficulty.LOCAL, true);
+    }
+
+    /**
+     * A static function that receives a board size and returns the start board of a new game on
+     * that board size.
+     *
+     * @param boardSize the length of the side of the board matrix.
+     * @return the start board of a new game on the received board size.
+     */
+    static Piece[][] createStartBoard(int boardSize) {
+        LiveGameDetails game = createStartGame(boardSize);
+
+        new BoardModel(Piece.BLACK, Piece.WHITE).loadGame(game);
+
+        return game.getBoard();
+    }
+
+    /**
+     * A static function that receives a board state and a player, and returns a bitboard of the
+     * valid moves of that player, generated over the whole board.
+     *
+     * @param boardState a board state.
+     * @param player a player of the game.
+     * @return a bitboard of the valid moves of the received player.
+     */
+    static long[] getMoves(BoardState boardState, Piece player) {
+        int boardSize = boardState.getBoardSize();
+        long[] moves = new long[BoardGeometry.getWords(boardSize * boardSize)];
+
+        boardState.generateMoveMask(player, boardState.getRival(player), moves);
+
+        return moves;
+    }
+
+    /**
+     * A static function that receives a board state, a player and a random generator, and
+     * returns a random valid move of that player, or NO_MOVE if he has none.
+     *
+     * @param boardState a board state.
+     * @param player a player of the game.
+     * @param random a random generator.
+     * @return the square index of a random valid move of the player, or NO_MOVE if he has none.
+     */
+    static int pickMove(BoardState boardState, Piece player, Random random) {
+        long[] moves = getMoves(boardState, player);
+        int count = BoardGeometry.bitCount(moves);
+
+        if (count == 0)
+            return NO_MOVE;
+
+        int move = BoardGeometry.nextSetBit(moves, 0);
+
+        for (int skip = random.nextInt(count); skip > 0; skip--)
+            move = BoardGeometry.nextSetBit(moves, move + 1);
+
+        return move;
+    }
+
+    /**
+     * A static function that receives a board state and the player who has just moved, and
+     * returns the player who moves next: the rival if he has a valid move, or otherwise the same
+     * player (if neither has a valid move, the game is over and the next pick finds none).
+     *
+     * @param boardState a board state.
+     * @param player the player who has just moved.
+     * @return the player who moves next.
+     */
+    static Piece getNextPlayer(BoardState boardState, Piece player) {
+        Piece rival = boardState.getRival(player);
+
+        return boardState.hasAnyMove(rival) ? rival : player;
+    }
+}